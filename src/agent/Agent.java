@@ -6,6 +6,9 @@
 package agent;
 
 import data.Plan;
+import data.PlanMatrix;
+import data.Vector;
+import data.VectorArena;
 import func.CostFunction;
 import func.PlanCostFunction;
 import agent.logging.AgentLoggingProvider;
@@ -45,13 +48,17 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
     Plan<V> 								selectedPlan;
     int										selectedPlanID;
     V 										globalResponse;
-    final List<Plan<V>> 					possiblePlans 		= 	new ArrayList<>();
+    final List<Plan<V>> 					possiblePlans;
+    final PlanMatrix						planMatrix;			// contiguous storage of the possible plans, null if plans are not vectors
     final CostFunction<V> 					globalCostFunc;
     final PlanCostFunction<V> 				localCostFunc;
+    final VectorArena<V>					arena				=	new VectorArena<>(this::createValue);	// temporary values, reset every iteration
+    final ArgminCache<V>					argminCache			=	new ArgminCache<>();	// inputs and result of the last plan selection
 
     // logging stuff
     private int 							numTransmitted;
     private int 							numComputed;
+    private int 							numCacheHits;
     private int 							cumTransmitted;
     private int 							cumComputed;
     
@@ -66,8 +73,14 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
      * @param localCostFunc the local cost function
      * @param loggingProvider the logger for the experiment
      */
+    @SuppressWarnings("unchecked")
     public Agent(List<Plan<V>> possiblePlans, CostFunction<V> globalCostFunc, PlanCostFunction<V> localCostFunc, AgentLoggingProvider<? extends Agent> loggingProvider) {
-        this.possiblePlans.addAll(possiblePlans);
+        this.planMatrix = PlanMatrix.of(possiblePlans);
+        if(this.planMatrix != null) {
+            this.possiblePlans = (List<Plan<V>>) (List<?>) this.planMatrix.asPlans();
+        } else {
+            this.possiblePlans = new ArrayList<>(possiblePlans);
+        }
 //        if(localCostFunc != null) {
 //            this.possiblePlans.sort((plan1, plan2) -> (int)Math.signum(localCostFunc.calcCost(plan1) - localCostFunc.calcCost(plan2)));
 //        }
@@ -125,6 +138,39 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
         return possiblePlans;
     }
 
+    /**
+     * Returns the possible plans of this agent as a contiguous plan matrix.
+     * @return the plan matrix or null, if the plans are not vectors
+     */
+    public PlanMatrix getPlanMatrix() {
+        return planMatrix;
+    }
+
+    /**
+     * In-place addition of the selected plan to the given value: target += selected plan.
+     * If the selected plan is a row of the plan matrix, the row is added directly,
+     * which touches only the non-zero values of a sparse plan matrix.
+     * @param target value to which the selected plan is added
+     */
+    void addSelectedPlanTo(V target) {
+        if(this.planMatrix != null && this.selectedPlanID >= 0 && this.selectedPlanID < this.possiblePlans.size()
+                && this.possiblePlans.get(this.selectedPlanID) == this.selectedPlan) {
+            this.planMatrix.addRowTo(this.selectedPlanID, (Vector) (Object) target);
+        } else {
+            target.add(this.selectedPlan.getValue());
+        }
+    }
+
+    /**
+     * Returns the pool of temporary values of this agent. Borrowed values are
+     * valid until the beginning of the next iteration and must not escape the
+     * agent, see {@link VectorArena}.
+     * @return the arena of this agent
+     */
+    public VectorArena<V> getArena() {
+        return arena;
+    }
+
     public CostFunction<V> getGlobalCostFunction() {
         return globalCostFunc;
     }
@@ -169,6 +215,21 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
     	this.numComputed = val;
     }
 
+    /**
+     * @return number of plan selections in this iteration that reused the previous selection, see {@link ArgminCache}
+     */
+    public int getNumCacheHits() {
+        return numCacheHits;
+    }
+    
+    public void setNumCacheHits(int val) {
+    	this.numCacheHits = val;
+    }
+    
+    public ArgminCache<V> getArgminCache() {
+        return argminCache;
+    }
+
     public int getCumTransmitted() {
         return cumTransmitted;
     }
@@ -211,6 +272,7 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
 
         numTransmitted = 0;
         numComputed = 0;
+        numCacheHits = 0;
         cumTransmitted = 0;
         cumComputed = 0;
     }
@@ -229,8 +291,10 @@ public abstract class Agent<V extends DataType<V>> extends BasePeerlet {
     public void reset() {
     	this.numTransmitted 	= 	0;
         this.numComputed 		= 	0;
+        this.numCacheHits 		= 	0;
         this.cumTransmitted		= 	0;
         this.cumComputed 		= 	0;
+        this.argminCache.clear();
     }
     
     void log(Level level, String message) {
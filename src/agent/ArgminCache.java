@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package agent;
+
+import config.Configuration;
+import data.DataType;
+import data.Vector;
+
+/**
+ * Remembers the inputs and the result of the last plan selection of an
+ * agent. Once I-EPOS has nearly converged, an agent often receives the same
+ * response of the other agents as in the previous iteration, so the previous
+ * selection can be reused instead of scoring every plan again.
+ *
+ * The inputs are the response of the other agents and the scalar parameters
+ * of the selection (e.g. lambda, or alpha, beta and the discomfort sums). They
+ * match the stored ones if no value differs by more than
+ * <code>Configuration.argminCacheEpsilon</code>; with epsilon 0 they must be
+ * equal. A negative epsilon disables the cache. Responses that are not
+ * {@link Vector}s only match if they are equal.
+ *
+ * A reused selection is a minimizer for the previous inputs. If several plans
+ * have the same minimal cost, it is the one chosen before rather than a new
+ * random choice among them.
+ *
+ * @author Peter P. & Jovan N.
+ * @param <V> the type of the data
+ */
+public class ArgminCache<V extends DataType<V>> {
+
+    private V response = null;
+    private double[] parameters = null;
+    private int selected = -1;
+    private boolean hit = false;
+
+    /**
+     * @param response the response of the other agents
+     * @param parameters the scalar parameters of the selection
+     * @return the previously selected plan if the inputs match, -1 otherwise
+     */
+    public int lookup(V response, double... parameters) {
+        double epsilon = Configuration.argminCacheEpsilon;
+        hit = epsilon >= 0 && selected >= 0
+                && matches(parameters, epsilon)
+                && matches(response, epsilon);
+        return hit ? selected : -1;
+    }
+
+    /**
+     * Stores the inputs and the result of a selection; does nothing if the cache is disabled.
+     * @param response the response of the other agents, copied
+     * @param selected the index of the selected plan
+     * @param parameters the scalar parameters of the selection
+     */
+    public void store(V response, int selected, double... parameters) {
+        if (Configuration.argminCacheEpsilon < 0) {
+            return;
+        }
+        if (this.response == null) {
+            this.response = response.cloneThis();
+        } else {
+            this.response.set(response);
+        }
+        this.parameters = parameters.clone();
+        this.selected = selected;
+    }
+
+    /**
+     * @return <code>true</code> if the last lookup returned a stored selection
+     */
+    public boolean isHit() {
+        return hit;
+    }
+
+    public void clear() {
+        response = null;
+        parameters = null;
+        selected = -1;
+        hit = false;
+    }
+
+    private boolean matches(double[] parameters, double epsilon) {
+        if (this.parameters.length != parameters.length) {
+            return false;
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            if (!matches(this.parameters[i], parameters[i], epsilon)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(V response, double epsilon) {
+        if (!(response instanceof Vector)) {
+            return response.equals(this.response);
+        }
+        Vector current = (Vector) response;
+        Vector previous = (Vector) this.response;
+        if (current.getNumDimensions() != previous.getNumDimensions()) {
+            return false;
+        }
+        for (int i = 0; i < current.getNumDimensions(); i++) {
+            if (!matches(previous.getValue(i), current.getValue(i), epsilon)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(double previous, double current, double epsilon) {
+        // NaN never matches
+        return Math.abs(current - previous) <= epsilon;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package agent;
+
+import data.Vector;
+import func.QuadraticCostFunction;
+import java.util.List;
+
+/**
+ * Evaluates the cost of all 2^k accept/reject combinations of the children
+ * of an agent in closed form, for a {@link QuadraticCostFunction}.
+ *
+ * Let <code>x</code> be the response of all other agents plus the previous
+ * responses of all children and <code>d_i</code> the delta (current - previous
+ * response) of child <code>i</code>. The cost of combination <code>S</code> is
+ * <pre>
+ *     cost(x + D_S) = K(x) + planTerm(SUM{s_i}, SUM{G_ij}, d) + SUM{a_i}    (i, j in S)
+ * </pre>
+ * with the Gram matrix <code>G_ij = d_i^T * d_j</code>, <code>a_i = u(x)^T * d_i</code>
+ * and <code>s_i = SUM{d_i}</code>. These inner products are computed once per
+ * agent and iteration, after which every combination is scored in O(k)
+ * instead of O(numDimensions).
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class GramCombinationEvaluator {
+
+    private final QuadraticCostFunction costFunction;
+    private final int numChildren;
+    private final int numDimensions;
+    private final double constantTerm;     // K(x)
+    private final double[] linearTerms;    // a_i
+    private final double[] deltaSums;      // s_i
+    private final double[][] gram;         // G_ij
+
+    /**
+     * Computes the inner products of the child deltas.
+     *
+     * @param costFunction the quadratic cost function
+     * @param prevChoices previous response of every child
+     * @param choices current response of every child
+     * @param constant response of all other agents, may be null
+     */
+    public GramCombinationEvaluator(QuadraticCostFunction costFunction, List<Vector> prevChoices, List<Vector> choices, Vector constant) {
+        this.costFunction = costFunction;
+        this.numChildren = choices.size();
+        this.numDimensions = choices.get(0).getNumDimensions();
+
+        Vector base = constant != null ? constant.cloneThis() : new Vector(numDimensions);
+        Vector[] deltas = new Vector[numChildren];
+        for (int i = 0; i < numChildren; i++) {
+            base.add(prevChoices.get(i));
+            deltas[i] = choices.get(i).cloneThis();
+            deltas[i].subtract(prevChoices.get(i));
+        }
+
+        this.constantTerm = costFunction.constantTerm(base);
+        Vector u = costFunction.linearTerm(base);
+
+        this.linearTerms = new double[numChildren];
+        this.deltaSums = new double[numChildren];
+        this.gram = new double[numChildren][numChildren];
+        for (int i = 0; i < numChildren; i++) {
+            linearTerms[i] = u.dot(deltas[i]);
+            deltaSums[i] = deltas[i].sum();
+            for (int j = 0; j <= i; j++) {
+                gram[i][j] = gram[j][i] = deltas[i].dot(deltas[j]);
+            }
+        }
+    }
+
+    public int getNumChildren() {
+        return numChildren;
+    }
+
+    /**
+     * @return the constant term K(x), i.e. the cost if all children are rejected
+     * minus the plan term of the empty combination
+     */
+    public double getConstantTerm() {
+        return constantTerm;
+    }
+
+    /**
+     * @param i index of the child
+     * @return u(x)^T * d_i
+     */
+    public double getLinearTerm(int i) {
+        return linearTerms[i];
+    }
+
+    /**
+     * @param i index of the first child
+     * @param j index of the second child
+     * @return d_i^T * d_j
+     */
+    public double getGram(int i, int j) {
+        return gram[i][j];
+    }
+
+    /**
+     * @param i index of the child
+     * @return sum of all values of d_i
+     */
+    public double getDeltaSum(int i) {
+        return deltaSums[i];
+    }
+
+    /**
+     * Calculates the cost of the given combination from scratch in O(k^2).
+     *
+     * @param combination bit i is 1 if the current response of child i is accepted
+     * @return cost of the combination
+     */
+    public double calcCost(int combination) {
+        double sum = 0;
+        double normSqr = 0;
+        double linear = 0;
+        for (int i = 0; i < numChildren; i++) {
+            if ((combination & (1 << i)) != 0) {
+                sum += deltaSums[i];
+                linear += linearTerms[i];
+                for (int j = 0; j < numChildren; j++) {
+                    if ((combination & (1 << j)) != 0) {
+                        normSqr += gram[i][j];
+                    }
+                }
+            }
+        }
+        return constantTerm + planTerm(sum, normSqr) + linear;
+    }
+
+    /**
+     * Lower bound on the cost of all combinations that agree with the given
+     * one on the first <code>depth</code> children. The plan term is never
+     * negative, so it is dropped, and every undecided child contributes its
+     * linear term only if it is negative.
+     *
+     * @param combination decisions of the first <code>depth</code> children
+     * @param depth number of decided children
+     * @return lower bound on the cost
+     */
+    public double lowerBound(int combination, int depth) {
+        double bound = constantTerm;
+        for (int i = 0; i < numChildren; i++) {
+            if (i < depth) {
+                if ((combination & (1 << i)) != 0) {
+                    bound += linearTerms[i];
+                }
+            } else {
+                bound += Math.min(0, linearTerms[i]);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Calculates the cost of every combination. The combinations are visited
+     * in Gray-code order, so every step flips a single child and updates the
+     * running inner products in O(k).
+     *
+     * @param costs output array of length 2^k, indexed by combination
+     */
+    public void calcCosts(double[] costs) {
+        double sum = 0;
+        double normSqr = 0;
+        double linear = 0;
+        double[] cross = new double[numChildren];    // cross[j] = SUM{G_ij | i in S}
+
+        costs[0] = constantTerm + planTerm(0, 0);
+
+        int combination = 0;
+        for (int step = 1; step < costs.length; step++) {
+            int c = Integer.numberOfTrailingZeros(step);
+            combination ^= 1 << c;
+            double[] gramC = gram[c];
+            if ((combination & (1 << c)) != 0) {
+                normSqr += 2 * cross[c] + gramC[c];
+                sum += deltaSums[c];
+                linear += linearTerms[c];
+                for (int j = 0; j < numChildren; j++) {
+                    cross[j] += gramC[j];
+                }
+            } else {
+                for (int j = 0; j < numChildren; j++) {
+                    cross[j] -= gramC[j];
+                }
+                normSqr -= 2 * cross[c] + gramC[c];
+                sum -= deltaSums[c];
+                linear -= linearTerms[c];
+            }
+            costs[combination] = constantTerm + planTerm(sum, normSqr) + linear;
+        }
+    }
+
+    /**
+     * The combined deltas are never materialized, so their squared deviations
+     * are derived from the sum and the squared norm.
+     */
+    private double planTerm(double sum, double normSqr) {
+        return costFunction.planTerm(sum, normSqr, normSqr - sum * sum / numDimensions, numDimensions);
+    }
+}
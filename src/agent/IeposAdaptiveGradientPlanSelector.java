@@ -29,7 +29,7 @@ public class IeposAdaptiveGradientPlanSelector implements PlanSelector<IeposAgen
         } else {
             DifferentiableCostFunction<Vector> gradientFunction = (DifferentiableCostFunction<Vector>) agent.globalCostFunc;
 
-            Vector otherResponse = agent.globalResponse.cloneThis();
+            Vector otherResponse = agent.arena.borrowCopy(agent.globalResponse);
             otherResponse.subtract(agent.prevSelectedPlan.getValue());
             otherResponse.subtract(agent.prevAggregatedResponse);
             otherResponse.add(agent.aggregatedResponse);
@@ -207,25 +207,16 @@ public class IeposAgent<V extends DataType<V>> extends IterativeTreeAgent<V, Iep
                 approvals.add(true);
             }
         } else if (children.size() > 0) {
-            List<List<V>> choicesPerAgent = new ArrayList<>();
-            for (int i = 0; i < children.size(); i++) {
-                List<V> choices = new ArrayList<>();
-                choices.add(prevSubtreeResponses.get(i));
-                choices.add(subtreeResponses.get(i));
-                choicesPerAgent.add(choices);
-            }
-            List<V> combinations = optimization.calcAllCombinations(choicesPerAgent);
-
-            V othersResponse = globalResponse.cloneThis();
+            V othersResponse = arena.borrowCopy(globalResponse);
             for (V prevSubtreeResponce : prevSubtreeResponses) {
                 othersResponse.subtract(prevSubtreeResponce);
             }
-            int selectedCombination = optimization.argmin(globalCostFunc, combinations, othersResponse);
-            this.setNumComputed(this.getNumComputed() + combinations.size());
+            int selectedCombination = optimization.argminCombinations(globalCostFunc, prevSubtreeResponses, subtreeResponses, othersResponse);
+            this.setNumComputed(this.getNumComputed() + optimization.getNumEvaluations());
 
-            List<Integer> selections = optimization.combinationToSelections(selectedCombination, choicesPerAgent);
-            for (int selection : selections) {
-                approvals.add(selection == 1);
+            // bit i of the combination is 1 if the new response of child i is approved
+            for (int i = 0; i < children.size(); i++) {
+                approvals.add(((selectedCombination >> i) & 1) == 1);
             }
         }
         for (int i = 0; i < children.size(); i++) {
@@ -250,8 +241,9 @@ public class IeposAgent<V extends DataType<V>> extends IterativeTreeAgent<V, Iep
      * @return
      */
     private UpMessage informParent() {
+        // the response escapes to the parent, so it is copied instead of borrowed
         V subtreeResponse = aggregatedResponse.cloneThis();
-        subtreeResponse.add(selectedPlan.getValue());
+        addSelectedPlanTo(subtreeResponse);
         return new UpMessage(subtreeResponse);
     }
 
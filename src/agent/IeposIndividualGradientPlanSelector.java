@@ -29,7 +29,7 @@ public class IeposIndividualGradientPlanSelector implements PlanSelector<IeposAg
         } else {
             DifferentiableCostFunction<Vector> gradientFunction = (DifferentiableCostFunction<Vector>) agent.globalCostFunc;
 
-            Vector otherResponse = agent.globalResponse.cloneThis();
+            Vector otherResponse = agent.arena.borrowCopy(agent.globalResponse);
             otherResponse.subtract(agent.prevSelectedPlan.getValue());
             otherResponse.multiply(agent.numAgents / (agent.numAgents - 1));
 
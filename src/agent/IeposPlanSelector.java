@@ -15,17 +15,24 @@ public class IeposPlanSelector<V extends DataType<V>> implements PlanSelector<Ie
 
     @Override
     public int selectPlan(IeposAgent<V> agent) {
-        V otherResponse = agent.globalResponse.cloneThis();
+        V otherResponse = agent.arena.borrowCopy(agent.globalResponse);
         otherResponse.subtract(agent.prevSelectedPlan.getValue());
         otherResponse.subtract(agent.prevAggregatedResponse);
         otherResponse.add(agent.aggregatedResponse);
 
-        return agent.optimization.argmin(agent.globalCostFunc, agent.possiblePlans, otherResponse, agent.lambda);
+        int cached = agent.argminCache.lookup(otherResponse, agent.lambda);
+        if (cached >= 0) {
+            agent.setNumCacheHits(agent.getNumCacheHits() + 1);
+            return cached;
+        }
+        int selected = agent.optimization.argmin(agent.globalCostFunc, agent.possiblePlans, otherResponse, agent.lambda);
+        agent.argminCache.store(otherResponse, selected, agent.lambda);
+        return selected;
     }
 
     @Override
     public int getNumComputations(IeposAgent<V> agent) {
-        return agent.possiblePlans.size();
+        return agent.argminCache.isHit() ? 0 : agent.optimization.getNumPlansVisited();
     }
 
 }
@@ -98,6 +98,7 @@ public abstract class IterativeTreeAgent<V 		extends DataType<V>,
         }        
     	
         this.setNumComputed(0);
+        this.setNumCacheHits(0);
         this.setNumTransmitted(0);
 
         if (this.conditionToStartNewIteration()) {
@@ -119,6 +120,7 @@ public abstract class IterativeTreeAgent<V 		extends DataType<V>,
     
     void doIfConditionToStartNewIterationIsMet() {
 //    	this.log(Level.FINER, "IterativeTreeAgent::doIfConditionToStartNewIterationIsMet()");
+    	this.arena.reset();
     	this.initIteration();
         if (this.isLeaf()) {
             this.goUp();
@@ -48,6 +48,7 @@ public class ModifiableIeposAgent<V extends DataType<V>> extends MultiObjectiveI
 	private Configuration			config;
 	private AgentState 				state;	
 	private ReorganizationStrategy 	strategy;
+	private V						downMessageResponse;	// global response sent to all children in the current DOWN phase
     
 
 	public ModifiableIeposAgent(Configuration config,								
@@ -224,9 +225,14 @@ public class ModifiableIeposAgent<V extends DataType<V>> extends MultiObjectiveI
 	@Override
 	/**
 	* WARNING: global response here is cloned, even though it wasn't done originally!
+	* The clone escapes to the children, so it is not borrowed from the arena. Children
+	* only copy it, so one clone is made per DOWN phase and shared by all messages.
 	*/
 	DownMessage generateDownMessage(int i) {
-		return new ModifiableDownMessage(this.globalResponse.cloneThis(), this.approvals.get(i), this.globalDiscomfortSum, this.globalDiscomfortSumSqr, this.shouldReorganize());
+		if(i == 0 || this.downMessageResponse == null) {
+			this.downMessageResponse = this.globalResponse.cloneThis();
+		}
+		return new ModifiableDownMessage(this.downMessageResponse, this.approvals.get(i), this.globalDiscomfortSum, this.globalDiscomfortSumSqr, this.shouldReorganize());
 	}
 
 	@Override
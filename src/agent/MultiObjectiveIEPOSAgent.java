@@ -158,6 +158,16 @@ public class MultiObjectiveIEPOSAgent<V extends DataType<V>> extends IterativeTr
     public V getGlobalResponse() {
         return globalResponse.cloneThis();
     }
+
+    /**
+     * Returns a copy of the global response borrowed from the arena of this
+     * agent. Unlike {@link #getGlobalResponse()}, it does not allocate, but the
+     * copy is only valid during the current iteration.
+     * @return copy of the global response, owned by the arena
+     */
+    public V borrowGlobalResponse() {
+        return this.arena.borrowCopy(this.globalResponse);
+    }
     
     public Plan<V> getPrevSelectedPlan() {
     	return this.prevSelectedPlan;
@@ -418,33 +428,7 @@ public class MultiObjectiveIEPOSAgent<V extends DataType<V>> extends IterativeTr
                 approvals.add(true);
             }
         } else if (children.size() > 0) {
-            List<List<V>> 			responsesPerChild			=	new ArrayList<>();
-            List<List<Double>> 		discomfortSumPerChild		=	new ArrayList<>();
-            List<List<Double>>		discomfortSumSqrPerChild	=	new ArrayList<>();
-            
-            for (int i = 0; i < this.children.size(); i++) {
-                List<V> responseChoices = new ArrayList<>();
-                List<Double> discomfortSumChoices = new ArrayList<>();
-                List<Double> discomfortSumSqrChoices = new ArrayList<>();
-                
-                responseChoices.add(this.prevSubtreeResponses.get(i));
-                responseChoices.add(this.subtreeResponses.get(i));
-                discomfortSumChoices.add(this.prevSubtreeDiscomfortSum.get(i));
-                discomfortSumChoices.add(this.subtreeDiscomfortSum.get(i));
-                discomfortSumSqrChoices.add(this.prevSubtreeDiscomfortSumSqr.get(i));
-                discomfortSumSqrChoices.add(this.subtreeDiscomfortSumSqr.get(i));
-                
-                responsesPerChild.add(responseChoices);
-                discomfortSumPerChild.add(discomfortSumChoices);
-                discomfortSumSqrPerChild.add(discomfortSumSqrChoices);
-            }
-            
-            List<V> 		responseCombinations 			= this.optimization.calcAllCombinations(responsesPerChild);
-            List<Double> 	discomfortSumCombinations		= this.optimization.calculateAllCombinationsForDiscomfortScores(discomfortSumPerChild);
-            List<Double>	discomfortSumSqrCombinations	= this.optimization.calculateAllCombinationsForDiscomfortScores(discomfortSumSqrPerChild);
-            
-            
-            V 		othersResponse 			= this.globalResponse.cloneThis();
+            V 		othersResponse 			= this.arena.borrowCopy(this.globalResponse);
             double 	othersDiscomfortSum		= this.globalDiscomfortSum;
             double	othersDiscomfortSumSqr	= this.globalDiscomfortSumSqr;
             
@@ -459,10 +443,13 @@ public class MultiObjectiveIEPOSAgent<V extends DataType<V>> extends IterativeTr
             }
                        
             
-            int selectedCombination = this.optimization.argmin(globalCostFunc, 
-            												   responseCombinations,
-            												   discomfortSumCombinations,
-            												   discomfortSumSqrCombinations, 
+            int selectedCombination = this.optimization.argminCombinations(globalCostFunc, 
+            												   this.prevSubtreeResponses,
+            												   this.subtreeResponses,
+            												   this.prevSubtreeDiscomfortSum,
+            												   this.subtreeDiscomfortSum,
+            												   this.prevSubtreeDiscomfortSumSqr,
+            												   this.subtreeDiscomfortSumSqr,
             												   othersResponse,
             												   othersDiscomfortSum,
             												   othersDiscomfortSumSqr,
@@ -470,11 +457,11 @@ public class MultiObjectiveIEPOSAgent<V extends DataType<V>> extends IterativeTr
             												   this.getLocalCostWeight(),
             												   this.numAgents);
             
-            this.setNumComputed(this.getNumComputed() + responseCombinations.size());
+            this.setNumComputed(this.getNumComputed() + this.optimization.getNumEvaluations());
             
-            List<Integer> selections = this.optimization.combinationToSelections(selectedCombination, responsesPerChild);
-            for (int selection : selections) {
-                this.approvals.add(selection == 1);
+            // bit i of the combination is 1 if the new response of child i is approved
+            for (int i = 0; i < this.children.size(); i++) {
+                this.approvals.add(((selectedCombination >> i) & 1) == 1);
             }
             
         } else {
@@ -566,9 +553,10 @@ public class MultiObjectiveIEPOSAgent<V extends DataType<V>> extends IterativeTr
      * @return
      */
     private UpMessage informParent() {
+        // the response escapes to the parent, so it is copied instead of borrowed
         V subtreeResponse = this.aggregatedResponse.cloneThis();
-        subtreeResponse.add(this.selectedPlan.getValue());
-        double score = this.localCostFunc.calcCost(this.selectedPlan);
+        this.addSelectedPlanTo(subtreeResponse);
+        double score = this.selectedPlan.getLocalCost(this.localCostFunc);
         double totalDiscomfortSum = this.aggregatedDiscomfortSum + score;
         double totalDiscomfortSumSqr = this.aggregatedDiscomfortSumSqr + score*score;
         this.log(Level.FINER, "informParent:");
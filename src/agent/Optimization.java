@@ -7,16 +7,25 @@ package agent;
 
 import data.HasValue;
 import data.Plan;
+import data.PlanMatrix;
+import data.VantagePointTree;
+import data.Vector;
 import func.CostFunction;
 import func.PlanCostFunction;
+import func.QuadraticCostFunction;
+import func.TargetTrackingCostFunction;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.IntStream;
 
-import agent.planselection.OptimizationFactor;
+import agent.combinationsearch.CombinationCost;
+import agent.combinationsearch.CombinationLowerBound;
+import agent.combinationsearch.CombinationSearch;
+import agent.combinationsearch.ExhaustiveCombinationSearch;
 import config.Configuration;
 import data.DataType;
 
@@ -27,6 +36,8 @@ import data.DataType;
 public class Optimization {
 
     protected Random random;
+    private int numEvaluations;     // cost evaluations of the last combination search
+    private int numPlansVisited;    // plans scored by the last plan selection
 
     public Optimization(Random random) {
         this.random = random;
@@ -105,6 +116,244 @@ public class Optimization {
         return combinations;
     }
     
+    /**
+     * Selects the best combination of accepted and rejected children without
+     * materializing the combinations. Bit <code>c</code> of a combination
+     * index is 1 if the current response of child <code>c</code> is accepted
+     * and 0 if its previous response is kept, which is the encoding expected
+     * by {@link #combinationToSelections(int, List)}.
+     * 
+     * The combinations are visited in Gray-code order, so every step applies
+     * exactly one child delta (current - previous response) to a running sum.
+     * @param costFunction
+     * @param prevChoices previous response of every child
+     * @param choices current response of every child
+     * @param constant response of all other agents, may be null
+     * @return index of the selected combination
+     */
+    public <V extends DataType<V>> int argminCombinations(CostFunction<V> costFunction, List<V> prevChoices, List<V> choices, V constant) {
+        CombinationSearch search = Configuration.combinationSearch;
+        if (!(search instanceof ExhaustiveCombinationSearch)) {
+            GramCombinationEvaluator gram = this.gramEvaluator(costFunction, prevChoices, choices, constant);
+            CombinationCost cost = gram != null ? gram::calcCost : this.combinationCost(costFunction, prevChoices, choices, constant);
+            return this.searchCombinations(search, choices.size(), cost, gram != null ? gram::lowerBound : null);
+        }
+
+        double[] costs = new double[1 << choices.size()];
+        this.calcCombinationCosts(costFunction, prevChoices, choices, constant, costs);
+        this.numEvaluations = costs.length;
+        return selectMin(costs, 0);
+    }
+
+    /**
+     * Same as {@link #argminCombinations(CostFunction, List, List, DataType)},
+     * but additionally accounts for the discomfort of the agents in the subtrees.
+     * @param costFunction
+     * @param prevChoices previous response of every child
+     * @param choices current response of every child
+     * @param prevDiscomfortSums previous discomfort sum of every child
+     * @param discomfortSums current discomfort sum of every child
+     * @param prevDiscomfortSumSqrs previous discomfort sum of squares of every child
+     * @param discomfortSumSqrs current discomfort sum of squares of every child
+     * @param responseConst response of all other agents
+     * @param discomfortSumConst discomfort sum of all other agents
+     * @param discomfortSumSqrConst discomfort sum of squares of all other agents
+     * @param alpha
+     * @param beta
+     * @param numAgents
+     * @return index of the selected combination
+     */
+    public <V extends DataType<V>> int argminCombinations(
+    		CostFunction<V> costFunction,		List<V> prevChoices,
+    		List<V> choices,					List<Double> prevDiscomfortSums,
+    		List<Double> discomfortSums,		List<Double> prevDiscomfortSumSqrs,
+    		List<Double> discomfortSumSqrs,		V responseConst,
+    		double discomfortSumConst,			double discomfortSumSqrConst,
+    		double alpha,						double beta,
+    		double numAgents) {
+
+		CombinationSearch search = Configuration.combinationSearch;
+		if (!(search instanceof ExhaustiveCombinationSearch)) {
+			GramCombinationEvaluator gram = this.gramEvaluator(costFunction, prevChoices, choices, responseConst);
+			CombinationCost globalCost = gram != null ? gram::calcCost : this.combinationCost(costFunction, prevChoices, choices, responseConst);
+			// without unfairness and local cost, the global cost can be abandoned early
+			CombinationCost cost = !(alpha > 0 || beta > 0) ? globalCost : combination -> this.extendedCost(globalCost.calcCost(combination), alpha, beta,
+					this.combinationSum(prevDiscomfortSums, discomfortSums, discomfortSumConst, combination),
+					this.combinationSum(prevDiscomfortSumSqrs, discomfortSumSqrs, discomfortSumSqrConst, combination),
+					numAgents);
+			// the bound covers only the global cost
+			boolean bounded = gram != null && alpha == 0 && beta == 0;
+			return this.searchCombinations(search, choices.size(), cost, bounded ? gram::lowerBound : null);
+		}
+
+		int numCombinations = 1 << choices.size();
+		double[] costs = new double[numCombinations];
+		double[] combinedDiscomfortSums = new double[numCombinations];
+		double[] combinedDiscomfortSumSqrs = new double[numCombinations];
+
+		this.calcCombinationCosts(costFunction, prevChoices, choices, responseConst, costs);
+		this.calcCombinationSums(prevDiscomfortSums, discomfortSums, discomfortSumConst, combinedDiscomfortSums);
+		this.calcCombinationSums(prevDiscomfortSumSqrs, discomfortSumSqrs, discomfortSumSqrConst, combinedDiscomfortSumSqrs);
+
+		this.numEvaluations = numCombinations;
+		return this.extendedOptimization(costs, alpha, beta, combinedDiscomfortSums, combinedDiscomfortSumSqrs, numAgents);
+    }
+
+    /**
+     * @return number of combinations evaluated by the last call of
+     * <code>argminCombinations</code>
+     */
+    public int getNumEvaluations() {
+        return this.numEvaluations;
+    }
+
+    /**
+     * @return number of plans scored by the last plan selection; less than
+     * the number of plans if the selection was answered by the
+     * nearest-neighbour index
+     */
+    public int getNumPlansVisited() {
+        return this.numPlansVisited;
+    }
+
+    private int searchCombinations(CombinationSearch search, int numChildren, CombinationCost cost, CombinationLowerBound bound) {
+        this.numEvaluations = 0;
+        return search.search(numChildren, new CombinationCost() {
+            @Override
+            public double calcCost(int combination) {
+                numEvaluations++;
+                return cost.calcCost(combination);
+            }
+
+            @Override
+            public double calcCost(int combination, double upperBound) {
+                numEvaluations++;
+                return cost.calcCost(combination, upperBound);
+            }
+        }, bound);
+    }
+
+    /**
+     * @return closed-form evaluator for quadratic cost functions if
+     * {@link Configuration#gramCombinations} is set, null otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private <V extends DataType<V>> GramCombinationEvaluator gramEvaluator(CostFunction<V> costFunction, List<V> prevChoices, List<V> choices, V constant) {
+        if (Configuration.gramCombinations && costFunction instanceof QuadraticCostFunction && choices.get(0) instanceof Vector) {
+            return new GramCombinationEvaluator((QuadraticCostFunction) costFunction,
+                    (List<Vector>) (List<?>) prevChoices, (List<Vector>) (List<?>) choices, (Vector) constant);
+        }
+        return null;
+    }
+
+    /**
+     * Cost of a single combination: the sum of the deltas of the accepted
+     * children is assembled in a scratch value and added to the constant and
+     * the previous responses, so the evaluation can be abandoned early via
+     * {@link CostFunction#calcCostOfSum(DataType, DataType, double)}.
+     */
+    private <V extends DataType<V>> CombinationCost combinationCost(CostFunction<V> costFunction, List<V> prevChoices, List<V> choices, V constant) {
+        List<V> deltas = new ArrayList<>(choices.size());
+        for (int c = 0; c < choices.size(); c++) {
+            V delta = choices.get(c).cloneThis();
+            delta.subtract(prevChoices.get(c));
+            deltas.add(delta);
+        }
+        V base = constant != null ? constant.cloneThis() : prevChoices.get(0).cloneNew();
+        for (V prevChoice : prevChoices) {
+            base.add(prevChoice);
+        }
+        V accepted = base.cloneNew();
+
+        return new CombinationCost() {
+            @Override
+            public double calcCost(int combination) {
+                return this.calcCost(combination, Double.POSITIVE_INFINITY);
+            }
+
+            @Override
+            public double calcCost(int combination, double upperBound) {
+                accepted.reset();
+                for (int c = 0; c < deltas.size(); c++) {
+                    if ((combination & (1 << c)) != 0) {
+                        accepted.add(deltas.get(c));
+                    }
+                }
+                return costFunction.calcCostOfSum(base, accepted, upperBound);
+            }
+        };
+    }
+
+    private double combinationSum(List<Double> prevValues, List<Double> values, double constant, int combination) {
+        double sum = constant;
+        for (int c = 0; c < values.size(); c++) {
+            sum += (combination & (1 << c)) != 0 ? values.get(c) : prevValues.get(c);
+        }
+        return sum;
+    }
+
+    /**
+     * Walks all 2^k combinations in Gray-code order and stores the cost of
+     * <code>constant + combination</code> at the index of the combination.
+     * If enabled, quadratic cost functions are evaluated in closed form from
+     * the Gram matrix of the child deltas, see {@link GramCombinationEvaluator}.
+     */
+    private <V extends DataType<V>> void calcCombinationCosts(CostFunction<V> costFunction, List<V> prevChoices, List<V> choices, V constant, double[] costs) {
+        GramCombinationEvaluator gram = this.gramEvaluator(costFunction, prevChoices, choices, constant);
+        if (gram != null) {
+            gram.calcCosts(costs);
+            return;
+        }
+
+        int numChildren = choices.size();
+        List<V> deltas = new ArrayList<>(numChildren);
+        for (int c = 0; c < numChildren; c++) {
+            V delta = choices.get(c).cloneThis();
+            delta.subtract(prevChoices.get(c));
+            deltas.add(delta);
+        }
+
+        // combination 0: all previous responses
+        V running = constant != null ? constant.cloneThis() : prevChoices.get(0).cloneNew();
+        for (V prevChoice : prevChoices) {
+            running.add(prevChoice);
+        }
+        costs[0] = costFunction.calcCost(running);
+
+        int combination = 0;
+        for (int step = 1; step < costs.length; step++) {
+            int c = Integer.numberOfTrailingZeros(step);
+            combination ^= 1 << c;
+            if ((combination & (1 << c)) != 0) {
+                running.add(deltas.get(c));
+            } else {
+                running.subtract(deltas.get(c));
+            }
+            costs[combination] = costFunction.calcCost(running);
+        }
+    }
+
+    /**
+     * Scalar counterpart of {@link #calcCombinationCosts}: stores
+     * <code>constant + SUM{selected value of child c}</code> for every combination.
+     */
+    private void calcCombinationSums(List<Double> prevValues, List<Double> values, double constant, double[] sums) {
+        double running = constant;
+        for (double prevValue : prevValues) {
+            running += prevValue;
+        }
+        sums[0] = running;
+
+        int combination = 0;
+        for (int step = 1; step < sums.length; step++) {
+            int c = Integer.numberOfTrailingZeros(step);
+            combination ^= 1 << c;
+            double delta = values.get(c) - prevValues.get(c);
+            running += (combination & (1 << c)) != 0 ? delta : -delta;
+            sums[combination] = running;
+        }
+    }
+
     public <V extends DataType<V>, T extends HasValue<V>> int argmin(CostFunction<V> costFunction, List<T> choices) {
         return argmin(costFunction, choices, null);
     }
@@ -125,44 +374,192 @@ public class Optimization {
      * @param lambda
      * @return
      */
+    @SuppressWarnings("unchecked")
     public <V extends DataType<V>> int argmin(CostFunction<V> costFunction, List<? extends HasValue<? extends V>> choices, V constant, double lambda) {
-       
-    	double minCost = Double.POSITIVE_INFINITY;
-        int selected = -1;
-        int numOpt = 0;
-        
+        if (choices instanceof PlanMatrix.PlanList && (constant == null || constant instanceof Vector)) {
+            PlanMatrix matrix = ((PlanMatrix.PlanList) choices).getPlanMatrix();
+            return argmin((CostFunction<Vector>) (CostFunction<?>) costFunction, matrix, (Vector) constant, lambda);
+        }
+
         // lambda-PREF
         double[] costs = new double[choices.size()];
-        double sum = 0;
-        double sqrSum = 0;
-        double std = 0;
+        this.numPlansVisited = costs.length;
+        this.calcCosts(costFunction, choices, constant, costs, lambda == 0);
+        return selectMin(costs, lambda);
+    }
+
+    /**
+     * Same as {@link #argmin(CostFunction, List, DataType, double)}, but walks
+     * the rows of the plan matrix sequentially.
+     * @param costFunction
+     * @param choices
+     * @param constant
+     * @param lambda
+     * @return
+     */
+    public int argmin(CostFunction<Vector> costFunction, PlanMatrix choices, Vector constant, double lambda) {
+        if (lambda == 0) {
+            Vector query = nearestNeighbourQuery(costFunction, choices, constant);
+            if (query != null) {
+                return selectNearest(costFunction, choices, constant, query);
+            }
+        }
+
+        double[] costs = new double[choices.getNumPlans()];
+        this.numPlansVisited = costs.length;
+        this.calcCosts(costFunction, choices.asPlans(), constant, costs, lambda == 0);
+        return selectMin(costs, lambda);
+    }
 
-        for (int i = 0; i < choices.size(); i++) {
-            V combined;
-            if(constant != null) {
-                combined = constant.cloneThis();
-                combined.add(choices.get(i).getValue());
+    /**
+     * Returns the query <code>t - c</code> of the nearest-neighbour index if
+     * it is enabled via <code>Configuration.planIndexEpsilon</code> and the
+     * cost function is the squared distance to a target <code>t</code>.
+     * @param costFunction
+     * @param choices
+     * @param constant
+     * @return the query, or <code>null</code> if all plans have to be scored
+     */
+    private Vector nearestNeighbourQuery(CostFunction<Vector> costFunction, PlanMatrix choices, Vector constant) {
+        if (Configuration.planIndexEpsilon < 0 || constant == null || !(costFunction instanceof TargetTrackingCostFunction)) {
+            return null;
+        }
+        Vector target = ((TargetTrackingCostFunction) costFunction).getTrackingTarget();
+        if (target == null) {
+            return null;
+        }
+        Vector query = target.cloneThis();
+        query.subtract(constant);
+        return query;
+    }
+
+    /**
+     * Selects the plan nearest to the query with the vantage-point tree of
+     * the plan matrix. The nearest plans are scored with the cost function
+     * itself and ties are broken uniformly at random, as in a full scan.
+     * @param costFunction
+     * @param choices
+     * @param constant
+     * @param query
+     * @return
+     */
+    private int selectNearest(CostFunction<Vector> costFunction, PlanMatrix choices, Vector constant, Vector query) {
+        VantagePointTree.Neighbours neighbours = choices.getVantagePointTree().nearest(query, Configuration.planIndexEpsilon);
+        this.numPlansVisited = neighbours.getNumVisited();
+
+        int[] rows = neighbours.getRows();
+        double[] costs = new double[rows.length];
+        Vector plan = new Vector(choices.getNumDimensions());
+        for (int k = 0; k < rows.length; k++) {
+            choices.copyRow(rows[k], plan);
+            costs[k] = costFunction.calcCostOfSum(constant, plan);
+        }
+        return rows[selectMin(costs, 0)];
+    }
+
+    /**
+     * Computes the cost of <code>constant + choice</code> for every choice
+     * with {@link CostFunction#calcCosts(DataType, List, double[], int, int, boolean)},
+     * so terms that depend only on the constant are computed once per range
+     * and plan matrices are scored without creating plan objects.
+     *
+     * If only the minimal cost matters, the evaluation of a choice may be
+     * abandoned once it exceeds the minimum of the preceding choices of the
+     * same range. Such a choice gets a cost above that minimum, which a
+     * sequential scan in index order ignores just like its exact cost, so the
+     * selected plan and the random tie-breaking stay the same.
+     * @param costFunction
+     * @param choices
+     * @param constant
+     * @param costs output array, one cost per choice
+     * @param earlyAbandon whether costs above the running minimum may be inexact
+     */
+    private <V extends DataType<V>> void calcCosts(CostFunction<V> costFunction, List<? extends HasValue<? extends V>> choices, V constant, double[] costs, boolean earlyAbandon) {
+        this.forEachRange(costs.length, (from, to) -> costFunction.calcCosts(constant, choices, costs, from, to, earlyAbandon));
+    }
+
+    /**
+     * Runs the given computation over the index range <code>[0, size)</code>.
+     * Ranges of at least <code>Configuration.parallelThreshold</code> indices
+     * are split across the common fork-join pool. Only the costs are computed
+     * in parallel; the selection, including random tie-breaking, always scans
+     * the costs sequentially afterwards, so the result does not depend on
+     * thread scheduling and equals the sequential one.
+     * @param size
+     * @param range
+     */
+    private void forEachRange(int size, RangeComputation range) {
+        if (size < Configuration.parallelThreshold) {
+            range.compute(0, size);
+        } else {
+            int grain = Math.max(64, size / (4 * ForkJoinPool.getCommonPoolParallelism()));
+            ForkJoinPool.commonPool().invoke(new RangeTask(range, 0, size, grain));
+        }
+    }
+
+    private interface RangeComputation {
+        void compute(int from, int to);
+    }
+
+    private static class RangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeComputation range;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask(RangeComputation range, int from, int to, int grain) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                range.compute(from, to);
             } else {
-                combined = choices.get(i).getValue();
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(range, from, mid, grain), new RangeTask(range, mid, to, grain));
             }
-            
-            double cost = costFunction.calcCost(combined);
-            costs[i] = cost;
-            sum += cost;
-            sqrSum += cost*cost;
         }
-        
+    }
+
+    /**
+     * Selects the index with minimal cost, optionally trading off the cost
+     * against the index of the choice (lambda-PREF). Ties are broken uniformly
+     * at random.
+     * @param costs
+     * @param lambda
+     * @return
+     */
+    private int selectMin(double[] costs, double lambda) {
+        double minCost = Double.POSITIVE_INFINITY;
+        int selected = -1;
+        int numOpt = 0;
+
+        double sum = 0;
+        double sqrSum = 0;
+        double std = 0;
+
         if(lambda != 0) {
-            std = Math.sqrt(sqrSum/choices.size() - (sum/choices.size())*(sum/choices.size()));
+            for (int i = 0; i < costs.length; i++) {
+                sum += costs[i];
+                sqrSum += costs[i]*costs[i];
+            }
+            std = Math.sqrt(sqrSum/costs.length - (sum/costs.length)*(sum/costs.length));
             if(!Double.isFinite(std) || std < 0) {
                 std = 0;
             }
         }
         
-        for(int i = 0; i < choices.size(); i++) {
+        for(int i = 0; i < costs.length; i++) {
             double cost = costs[i];
             if (lambda != 0) {
-                double score = i/(double)choices.size();
+                double score = i/(double)costs.length;
                 cost = (1 - lambda) * cost + lambda * score * std;
             }
             
@@ -207,14 +604,12 @@ public class Optimization {
 		double[] discomfortSumSqrs = new double[responseCombos.size()];
 
 		IntStream.range(0, responseCombos.size()).forEach(i -> {
-			V combined;
+			double cost;
 			if(responseConst != null) {
-				combined = responseConst.cloneThis();
-				combined.add(responseCombos.get(i).getValue());
+				cost = costFunction.calcCostOfSum(responseConst, responseCombos.get(i));
 			} else {
-				combined = responseCombos.get(i).getValue();
+				cost = costFunction.calcCost(responseCombos.get(i));
 			}
-			double cost = costFunction.calcCost(combined);
 		
 			costs[i] = cost;
 			discomfortSums[i] = discomfortSumConst + discomfortSumCombos.get(i);
@@ -238,6 +633,7 @@ public class Optimization {
      * @param agent
      * @return
      */
+    @SuppressWarnings("unchecked")
     public <V extends DataType<V>> int argmin(
     		CostFunction<V> costFunction,		PlanCostFunction<V> localCostFunction,
 			List<Plan<V>> choices, 				V constant, 
@@ -245,32 +641,79 @@ public class Optimization {
 			double discomfortSumConstant,		double discomfortSumSqrConstant,	
 			int numAgents, 						MultiObjectiveIEPOSAgent agent) {
 
+		if((List<?>) choices instanceof PlanMatrix.PlanList && (constant == null || constant instanceof Vector)) {
+			return this.argmin((CostFunction<Vector>) (CostFunction<?>) costFunction, (PlanCostFunction<Vector>) (PlanCostFunction<?>) localCostFunction,
+							   ((PlanMatrix.PlanList) (List<?>) choices).getPlanMatrix(), (Vector) constant, alpha, beta,
+							   discomfortSumConstant, discomfortSumSqrConstant, numAgents, agent);
+		}
+
 		double[] costs = new double[choices.size()];
 		double[] discomfortSums = new double[choices.size()];
 		double[] discomfortSumSqrs = new double[choices.size()];
+		this.numPlansVisited = costs.length;
 
-		IntStream.range(0, choices.size()).forEach(i -> {
-			V combined;
-			if(constant != null) {
-				combined = constant.cloneThis();
-				combined.add(choices.get(i).getValue());
-			} else {
-				combined = choices.get(i).getValue();
-			}
-			double cost = costFunction.calcCost(combined);
-
-			costs[i] = cost;
-			double score = localCostFunction.calcCost(choices.get(i));
+		this.calcCosts(costFunction, choices, constant, costs, !(alpha > 0 || beta > 0));
+		for(int i = 0; i < costs.length; i++) {
+			double score = choices.get(i).getLocalCost(localCostFunction);
 			discomfortSums[i] = discomfortSumConstant + score;
 			discomfortSumSqrs[i] = discomfortSumSqrConstant + score*score;
 			//System.out.print("agent: " + agent.getPeer().getIndexNumber() + ", SumConst = " + discomfortSumConstant + ", Sum2const = " + discomfortSumSqrConstant);
 			//System.out.println("Sum is " + discomfortSums[i] + ", sum^2 is " + discomfortSumSqrs[i] + ", num agents = " + numAgents);
-		});
+		}
 
 		return this.extendedOptimization(costs, alpha, beta, discomfortSums, discomfortSumSqrs, numAgents);
 
     }
     
+    /**
+     * Invoked for plan selection when the plans are stored in a plan matrix.
+     * Rows are scored sequentially and the local costs of
+     * the plans are computed only once per agent. If neither unfairness nor
+     * local cost are weighted, the selection may be answered by the
+     * nearest-neighbour index.
+     * @param costFunction
+     * @param localCostFunction
+     * @param choices
+     * @param constant
+     * @param alpha
+     * @param beta
+     * @param discomfortSumConstant
+     * @param discomfortSumSqrConstant
+     * @param numAgents
+     * @param agent
+     * @return
+     */
+    public int argmin(
+    		CostFunction<Vector> costFunction,	PlanCostFunction<Vector> localCostFunction,
+			PlanMatrix choices, 				Vector constant, 
+			double alpha,						double beta,
+			double discomfortSumConstant,		double discomfortSumSqrConstant,	
+			int numAgents, 						MultiObjectiveIEPOSAgent agent) {
+
+		if(!(alpha > 0 || beta > 0)) {
+			Vector query = this.nearestNeighbourQuery(costFunction, choices, constant);
+			if(query != null) {
+				return this.selectNearest(costFunction, choices, constant, query);
+			}
+		}
+
+		int numPlans = choices.getNumPlans();
+		double[] costs = new double[numPlans];
+		double[] discomfortSums = new double[numPlans];
+		double[] discomfortSumSqrs = new double[numPlans];
+		double[] localCosts = choices.getLocalCosts(localCostFunction);
+		this.numPlansVisited = numPlans;
+
+		this.calcCosts(costFunction, choices.asPlans(), constant, costs, !(alpha > 0 || beta > 0));
+		for(int i = 0; i < numPlans; i++) {
+			double score = localCosts[i];
+			discomfortSums[i] = discomfortSumConstant + score;
+			discomfortSumSqrs[i] = discomfortSumSqrConstant + score*score;
+		}
+
+		return this.extendedOptimization(costs, alpha, beta, discomfortSums, discomfortSumSqrs, numAgents);
+    }
+    
     private <V extends DataType<V>> int extendedOptimization(double[] costs,				double alpha,
 			 												 double beta,					double[] discomfortSums, 
 			 												 double[] discomfortSumSqrs,	double numAgents) {
@@ -281,17 +724,7 @@ public class Optimization {
 			
 			try {
 				for(int i = 0; i < costs.length; i++) {
-					double cost = costs[i];
-					if(alpha > 0 || beta > 0) {
-						HashMap<OptimizationFactor, Object> parameters = new HashMap<OptimizationFactor, Object>();
-						parameters.put(OptimizationFactor.GLOBAL_COST, costs[i]);
-						parameters.put(OptimizationFactor.DISCOMFORT_SUM, discomfortSums[i]);
-						parameters.put(OptimizationFactor.DISCOMFORT_SUM_SQR, discomfortSumSqrs[i]);
-						parameters.put(OptimizationFactor.ALPHA, alpha);
-						parameters.put(OptimizationFactor.BETA, beta);
-						parameters.put(OptimizationFactor.NUM_AGENTS, numAgents);
-						cost = Configuration.planOptimizationFunction.apply(parameters);
-					}
+					double cost = this.extendedCost(costs[i], alpha, beta, discomfortSums[i], discomfortSumSqrs[i], numAgents);
 				
 					if (cost < minCost) {
 						minCost = cost;
@@ -310,4 +743,17 @@ public class Optimization {
 			return selected;		
 	}
     
+    /**
+     * Combines the global cost with unfairness and local cost via
+     * <code>Configuration.planOptimizationFunction</code>, if any of them is weighted.
+     */
+    private double extendedCost(double cost,				double alpha,
+    							double beta,				double discomfortSum,
+    							double discomfortSumSqr,	double numAgents) {
+		if(alpha > 0 || beta > 0) {
+			return Configuration.planOptimizationFunction.apply(cost, discomfortSum, discomfortSumSqr, alpha, beta, numAgents);
+		}
+		return cost;
+    }
+    
 }
@@ -0,0 +1,75 @@
+package agent.combinationsearch;
+
+import java.util.Arrays;
+
+/**
+ * Approximate beam search. Children are decided one after another; after every
+ * decision only the <code>width</code> best partial combinations are kept, where
+ * undecided children keep their previous response. Every step evaluates at most
+ * <code>width</code> new combinations, so the search is linear in the number of children.
+ * 
+ * @author Jovan N.
+ *
+ */
+public class BeamCombinationSearch implements CombinationSearch {
+	
+	private final int width;
+	
+	public BeamCombinationSearch(int width) {
+		if(width < 1) {
+			throw new IllegalArgumentException("Beam width must be positive, but is " + width);
+		}
+		this.width = width;
+	}
+	
+	public int getWidth() {
+		return this.width;
+	}
+
+	@Override
+	public int search(int numChildren, CombinationCost cost, CombinationLowerBound bound) {
+		int[] beam = new int[] {0};
+		double[] beamCosts = new double[] {cost.calcCost(0)};
+		
+		int bestCombination = 0;
+		double bestCost = beamCosts[0];
+		
+		for(int c = 0; c < numChildren; c++) {
+			int size = 2 * beam.length;
+			int[] candidates = new int[size];
+			double[] candidateCosts = new double[size];
+			for(int i = 0; i < beam.length; i++) {
+				// rejecting child c keeps the combination and its cost
+				candidates[2*i] = beam[i];
+				candidateCosts[2*i] = beamCosts[i];
+				candidates[2*i + 1] = beam[i] | (1 << c);
+				candidateCosts[2*i + 1] = cost.calcCost(candidates[2*i + 1]);
+				if(candidateCosts[2*i + 1] < bestCost) {
+					bestCost = candidateCosts[2*i + 1];
+					bestCombination = candidates[2*i + 1];
+				}
+			}
+			
+			Integer[] order = new Integer[size];
+			for(int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> Double.compare(candidateCosts[a], candidateCosts[b]));
+			
+			int newSize = Math.min(this.width, size);
+			beam = new int[newSize];
+			beamCosts = new double[newSize];
+			for(int i = 0; i < newSize; i++) {
+				beam[i] = candidates[order[i]];
+				beamCosts[i] = candidateCosts[order[i]];
+			}
+		}
+		return bestCombination;
+	}
+	
+	@Override
+	public String toString() {
+		return "beam(" + this.width + ")";
+	}
+
+}
@@ -0,0 +1,75 @@
+package agent.combinationsearch;
+
+/**
+ * Exact depth-first branch-and-bound over the decisions of the children. A subtree
+ * of decisions is pruned when its lower bound is not smaller than the best complete
+ * combination found so far. Without a lower bound every combination is evaluated.
+ * 
+ * @author Jovan N.
+ *
+ */
+public class BranchAndBoundCombinationSearch implements CombinationSearch {
+	
+	private int 					numChildren;
+	private CombinationCost 		cost;
+	private CombinationLowerBound 	bound;
+	private double 					bestCost;
+	private int 					bestCombination;
+
+	@Override
+	public int search(int numChildren, CombinationCost cost, CombinationLowerBound bound) {
+		this.numChildren = numChildren;
+		this.cost = cost;
+		this.bound = bound;
+		
+		// incumbent: reject all changes
+		this.bestCombination = 0;
+		this.bestCost = cost.calcCost(0);
+		
+		this.branch(0, 0);
+		return this.bestCombination;
+	}
+	
+	private void branch(int combination, int depth) {
+		if(depth == this.numChildren) {
+			if(combination != 0) {
+				double value = this.cost.calcCost(combination, this.bestCost);
+				if(value < this.bestCost) {
+					this.bestCost = value;
+					this.bestCombination = combination;
+				}
+			}
+			return;
+		}
+		
+		int accepted = combination | (1 << depth);
+		if(this.bound == null) {
+			this.branch(accepted, depth + 1);
+			this.branch(combination, depth + 1);
+			return;
+		}
+		
+		// visit the more promising branch first to tighten the incumbent early
+		double acceptedBound = this.bound.lowerBound(accepted, depth + 1);
+		double rejectedBound = this.bound.lowerBound(combination, depth + 1);
+		if(acceptedBound <= rejectedBound) {
+			this.visit(accepted, depth + 1, acceptedBound);
+			this.visit(combination, depth + 1, rejectedBound);
+		} else {
+			this.visit(combination, depth + 1, rejectedBound);
+			this.visit(accepted, depth + 1, acceptedBound);
+		}
+	}
+	
+	private void visit(int combination, int depth, double lowerBound) {
+		if(lowerBound < this.bestCost) {
+			this.branch(combination, depth);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "branch-and-bound";
+	}
+
+}
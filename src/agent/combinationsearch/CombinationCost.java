@@ -0,0 +1,26 @@
+package agent.combinationsearch;
+
+/**
+ * Cost of a combination of accepted and rejected children. Bit <code>c</code>
+ * of the combination is 1 if the current response of child <code>c</code> is
+ * accepted and 0 if its previous response is kept.
+ * 
+ * @author Jovan N.
+ *
+ */
+public interface CombinationCost {
+	
+	public double calcCost(int combination);
+	
+	/**
+	 * Same as {@link #calcCost(int)}, but may return any value greater than
+	 * <code>upperBound</code> once the cost is known to exceed it.
+	 * @param combination
+	 * @param upperBound e.g. the cost of the best combination found so far
+	 * @return the cost, exact if it is at most the upper bound
+	 */
+	public default double calcCost(int combination, double upperBound) {
+		return this.calcCost(combination);
+	}
+
+}
@@ -0,0 +1,18 @@
+package agent.combinationsearch;
+
+/**
+ * Lower bound on the cost of all combinations that share a prefix of decisions.
+ * 
+ * @author Jovan N.
+ *
+ */
+public interface CombinationLowerBound {
+	
+	/**
+	 * @param combination decisions for children <code>0, ..., depth-1</code>; higher bits are ignored
+	 * @param depth number of children that are already decided
+	 * @return value that is not larger than the cost of any combination with the given prefix
+	 */
+	public double lowerBound(int combination, int depth);
+
+}
@@ -0,0 +1,23 @@
+package agent.combinationsearch;
+
+/**
+ * Strategy for selecting which children's changes are accepted during aggregation.
+ * The number of combinations grows as 2^numChildren, so for wide trees the
+ * exhaustive enumeration may be replaced by an exact branch-and-bound or by an
+ * approximate search.
+ * 
+ * @author Jovan N.
+ *
+ */
+public interface CombinationSearch {
+	
+	/**
+	 * Searches for the combination with minimal cost.
+	 * @param numChildren number of children
+	 * @param cost cost of a combination
+	 * @param bound lower bound on the cost of partial combinations, or <code>null</code> if none is available
+	 * @return the selected combination
+	 */
+	public int search(int numChildren, CombinationCost cost, CombinationLowerBound bound);
+
+}
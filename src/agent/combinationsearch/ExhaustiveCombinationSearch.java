@@ -0,0 +1,34 @@
+package agent.combinationsearch;
+
+/**
+ * Evaluates all 2^numChildren combinations. This is the default strategy.
+ * 
+ * <code>Optimization</code> handles this strategy itself, evaluating the combinations
+ * incrementally and breaking ties at random; {@link #search} is provided for completeness
+ * and returns the first minimum.
+ * 
+ * @author Jovan N.
+ *
+ */
+public class ExhaustiveCombinationSearch implements CombinationSearch {
+
+	@Override
+	public int search(int numChildren, CombinationCost cost, CombinationLowerBound bound) {
+		double minCost = Double.POSITIVE_INFINITY;
+		int selected = 0;
+		for(int combination = 0; combination < (1 << numChildren); combination++) {
+			double value = cost.calcCost(combination);
+			if(value < minCost) {
+				minCost = value;
+				selected = combination;
+			}
+		}
+		return selected;
+	}
+	
+	@Override
+	public String toString() {
+		return "exhaustive";
+	}
+
+}
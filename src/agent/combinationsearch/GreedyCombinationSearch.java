@@ -0,0 +1,42 @@
+package agent.combinationsearch;
+
+/**
+ * Approximate greedy coordinate descent. Starting from rejecting all changes, the
+ * decision of the single child that reduces the cost the most is flipped, until no
+ * flip reduces the cost any further. Every round evaluates <code>numChildren</code>
+ * combinations.
+ * 
+ * @author Jovan N.
+ *
+ */
+public class GreedyCombinationSearch implements CombinationSearch {
+
+	@Override
+	public int search(int numChildren, CombinationCost cost, CombinationLowerBound bound) {
+		int combination = 0;
+		double currentCost = cost.calcCost(combination);
+		
+		while(true) {
+			int bestFlip = -1;
+			double bestCost = currentCost;
+			for(int c = 0; c < numChildren; c++) {
+				double value = cost.calcCost(combination ^ (1 << c), bestCost);
+				if(value < bestCost) {
+					bestCost = value;
+					bestFlip = c;
+				}
+			}
+			if(bestFlip < 0) {
+				return combination;
+			}
+			combination ^= 1 << bestFlip;
+			currentCost = bestCost;
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "greedy";
+	}
+
+}
@@ -18,6 +18,7 @@
 package agent.dataset;
 
 import data.Plan;
+import data.PlanMatrix;
 import data.Vector;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -63,6 +64,20 @@ public class FileVectorDataset implements Dataset<Vector> {
      */
     @Override
     public List<Plan<Vector>> getPlans(int agentId) {
+        return getPlanMatrix(agentId).asPlans();
+    }
+
+    /**
+     * Returns the plans for the specified agent stored contiguously in a plan
+     * matrix. The matrix is sparse if the fraction of non-zero values is below
+     * {@link Configuration#sparsePlanDensity}, and dense values are stored in
+     * single precision if {@link Configuration#floatPlans} is set.
+     *
+     * @param agentId the id of the specified agent; the first agent has id 0,
+     * the second agent id 1 and so on
+     * @return the plans for the specified agent
+     */
+    public PlanMatrix getPlanMatrix(int agentId) {
         List<Plan<Vector>> plans = new ArrayList<>();
 
         // read plans from the data file
@@ -82,7 +97,8 @@ public class FileVectorDataset implements Dataset<Vector> {
             Logger.getLogger(FileVectorDataset.class.getName()).log(Level.SEVERE, null, ex);
         }
 
-        return plans;
+        // the parsed plans are only temporary, the agent keeps the matrix
+        return PlanMatrix.fromPlans(plans, Configuration.sparsePlanDensity, Configuration.floatPlans);
     }
 
     /**
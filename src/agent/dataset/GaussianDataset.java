@@ -18,14 +18,17 @@
 package agent.dataset;
 
 import data.Plan;
+import data.DensePlanMatrix;
+import data.FloatPlanMatrix;
 import data.Vector;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import config.Configuration;
+
 /**
  * Can be used to create a Gaussian distributed dataset
  *
@@ -69,13 +72,15 @@ public class GaussianDataset implements Dataset<Vector> {
         random = new Random(agentSeed);
 
         // generate the plans
-        List<Plan<Vector>> plans = new ArrayList<>();
+        DensePlanMatrix plans = new DensePlanMatrix(numPlans, numDimensions);
         for (int p = 0; p < numPlans; p++) {
-            Plan plan = generatePlan(numDimensions, random);
-            plan.setIndex(p);
-            plans.add(plan);
+            generatePlan(plans, p, random);
+            plans.setIndex(p, p);
+        }
+        if (Configuration.floatPlans) {
+            return FloatPlanMatrix.fromMatrix(plans).asPlans();
         }
-        return plans;
+        return plans.asPlans();
     }
 
     /**
@@ -91,7 +96,7 @@ public class GaussianDataset implements Dataset<Vector> {
         for (int a = 0; a < numAgents; a++) {
             File file = new File(datasetDir + File.separator + "agent_" + a + ".plans");
             try (PrintStream out = new PrintStream(file)) {
-                for (Plan plan : getPlans(a)) {
+                for (Plan<Vector> plan : getPlans(a)) {
                     out.println(planToString(plan));
                 }
             }
@@ -99,18 +104,16 @@ public class GaussianDataset implements Dataset<Vector> {
     }
 
     /**
-     * Generates a new plan.
+     * Generates a new plan in the given row of the plan matrix.
      *
-     * @param numDimensions the number of dimensions of the plan (vector)
+     * @param plans the plan matrix of the agent
+     * @param plan the row of the generated plan
      * @param random the RNG used to generate the plan
-     * @return the generated plan
      */
-    private Plan<Vector> generatePlan(int numDimensions, Random random) {
-        Vector vector = new Vector(numDimensions);
-        for (int i = 0; i < numDimensions; i++) {
-            vector.setValue(i, (random.nextGaussian() * std + mean));
+    private void generatePlan(DensePlanMatrix plans, int plan, Random random) {
+        for (int i = 0; i < plans.getNumDimensions(); i++) {
+            plans.setValue(plan, i, (random.nextGaussian() * std + mean));
         }
-        return new Plan<>(vector);
     }
 
     /**
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package agent.dataset;
+
+import data.MappedPlanMatrix;
+import data.Plan;
+import data.PlanMatrix;
+import data.Vector;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import config.Configuration;
+
+/**
+ * Dataset backed by a binary plan file that is memory-mapped instead of
+ * parsed into the heap. Agents get zero-copy {@link MappedPlanMatrix} views
+ * into the mapped region, so the heap usage does not depend on the size of
+ * the plans, and the page cache of the operating system is shared between
+ * consecutive runs and JVMs that read the same file.
+ *
+ * The file is little-endian and consists of:
+ * <ul>
+ * <li>a header: magic number, version, number of agents and dimensionality
+ * (4 ints)</li>
+ * <li>the byte offset of the block of every agent (one long per agent)</li>
+ * <li>one block per agent: number of plans <code>n</code> (int), padding (int),
+ * <code>n</code> scores (doubles), <code>n</code> indices (ints, padded to a
+ * multiple of 8 bytes) and <code>n * dimensionality</code> values (doubles,
+ * row-major)</li>
+ * </ul>
+ * Files are created from a text dataset with {@link #write} or from the
+ * command line with {@link #main}.
+ *
+ * Java can map at most 2 GB per buffer, so the file is mapped in chunks of
+ * whole agent blocks.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class MappedPlanStore implements Dataset<Vector>, Closeable {
+
+    private static final int MAGIC = 0x45504F53;	// "EPOS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private final RandomAccessFile file;
+    private final int numAgents;
+    private final int numDimensions;
+    private final long[] blockOffsets;
+    private final long[] chunkOffsets;		// byte offset in the file where each chunk starts
+    private final MappedByteBuffer[] chunks;
+
+    private MappedPlanStore(RandomAccessFile file, int numAgents, int numDimensions, long[] blockOffsets,
+            long[] chunkOffsets, MappedByteBuffer[] chunks) {
+        this.file = file;
+        this.numAgents = numAgents;
+        this.numDimensions = numDimensions;
+        this.blockOffsets = blockOffsets;
+        this.chunkOffsets = chunkOffsets;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Memory-maps the given plan file read-only.
+     *
+     * @param path the plan file
+     * @return the plan store
+     * @throws IOException if the file cannot be read or is not a plan file
+     */
+    public static MappedPlanStore open(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(path + " is not a plan file of version " + VERSION);
+            }
+            int numAgents = header.getInt(8);
+            int numDimensions = header.getInt(12);
+
+            ByteBuffer table = ByteBuffer.allocate(8 * numAgents).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table, HEADER_BYTES);
+            long[] blockOffsets = new long[numAgents + 1];
+            for (int i = 0; i < numAgents; i++) {
+                blockOffsets[i] = table.getLong(8 * i);
+            }
+            blockOffsets[numAgents] = channel.size();
+
+            // group consecutive agent blocks into chunks that can be mapped
+            List<Long> starts = new ArrayList<>();
+            List<Long> ends = new ArrayList<>();
+            for (int i = 0; i < numAgents; i++) {
+                long start = blockOffsets[i];
+                long end = blockOffsets[i + 1];
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Plans of agent " + i + " exceed 2 GB");
+                }
+                if (starts.isEmpty() || end - starts.get(starts.size() - 1) > CHUNK_BYTES) {
+                    starts.add(start);
+                    ends.add(end);
+                } else {
+                    ends.set(ends.size() - 1, end);
+                }
+            }
+            long[] chunkOffsets = new long[starts.size()];
+            MappedByteBuffer[] chunks = new MappedByteBuffer[starts.size()];
+            for (int c = 0; c < chunks.length; c++) {
+                chunkOffsets[c] = starts.get(c);
+                chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, starts.get(c), ends.get(c) - starts.get(c));
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedPlanStore(file, numAgents, numDimensions, blockOffsets, chunkOffsets, chunks);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of plan file");
+            }
+        }
+    }
+
+    public int getNumAgents() {
+        return numAgents;
+    }
+
+    public int getNumDimensions() {
+        return numDimensions;
+    }
+
+    @Override
+    public List<Plan<Vector>> getPlans(int agentId) {
+        return getPlanMatrix(agentId).asPlans();
+    }
+
+    /**
+     * Returns a view of the plans of the specified agent. The values are not
+     * copied; at most {@link Configuration#numPlans} plans are returned.
+     *
+     * @param agentId the id of the specified agent
+     * @return the plans for the specified agent
+     */
+    public PlanMatrix getPlanMatrix(int agentId) {
+        if (agentId < 0 || agentId >= numAgents) {
+            throw new IndexOutOfBoundsException("Agent " + agentId + " out of " + numAgents);
+        }
+        int c = Arrays.binarySearch(chunkOffsets, blockOffsets[agentId]);
+        if (c < 0) {
+            c = -c - 2;
+        }
+        ByteBuffer block = chunks[c].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int position = (int) (blockOffsets[agentId] - chunkOffsets[c]);
+        int numPlans = block.getInt(position);
+
+        int scoresAt = position + 8;
+        int indicesAt = scoresAt + 8 * numPlans;
+        int valuesAt = indicesAt + paddedIntBytes(numPlans);
+        double[] scores = new double[numPlans];
+        int[] indices = new int[numPlans];
+        for (int i = 0; i < numPlans; i++) {
+            scores[i] = block.getDouble(scoresAt + 8 * i);
+            indices[i] = block.getInt(indicesAt + 4 * i);
+        }
+        ((Buffer) block).position(valuesAt);
+        ((Buffer) block).limit(valuesAt + 8 * numPlans * numDimensions);
+        DoubleBuffer values = block.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+
+        PlanMatrix matrix = new MappedPlanMatrix(values, scores, indices, numDimensions);
+        if (numPlans > Configuration.numPlans) {
+            matrix = matrix.subMatrix(0, Configuration.numPlans);
+        }
+        return matrix;
+    }
+
+    private static int paddedIntBytes(int count) {
+        return 4 * (count + (count & 1));
+    }
+
+    /**
+     * Closes the underlying file. Views that were already handed out stay
+     * valid until the mapped buffers are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * Writes the plans of the first <code>numAgents</code> agents of the given
+     * dataset into a plan file.
+     *
+     * @param dataset the dataset to convert
+     * @param numAgents number of agents to write
+     * @param numDimensions dimensionality of the plans
+     * @param path the plan file to create
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Dataset<Vector> dataset, int numAgents, int numDimensions, String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(0);
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + 8 * numAgents).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numAgents).putInt(numDimensions);
+            channel.write(ByteBuffer.allocate(header.capacity()), 0);		// table is written at the end
+
+            long position = header.capacity();
+            for (int a = 0; a < numAgents; a++) {
+                List<Plan<Vector>> plans = dataset.getPlans(a);
+                int numPlans = plans.size();
+                ByteBuffer block = ByteBuffer.allocate(8 + 8 * numPlans + paddedIntBytes(numPlans) + 8 * numPlans * numDimensions)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                block.putInt(numPlans).putInt(0);
+                for (Plan<Vector> plan : plans) {
+                    block.putDouble(plan.getScore());
+                }
+                for (Plan<Vector> plan : plans) {
+                    block.putInt(plan.getIndex());
+                }
+                if ((numPlans & 1) == 1) {
+                    block.putInt(0);
+                }
+                for (Plan<Vector> plan : plans) {
+                    Vector vector = plan.getValue();
+                    if (vector.getNumDimensions() != numDimensions) {
+                        throw new IOException("Plan of agent " + a + " has " + vector.getNumDimensions()
+                                + " dimensions, expected " + numDimensions);
+                    }
+                    for (int i = 0; i < numDimensions; i++) {
+                        block.putDouble(vector.getValue(i));
+                    }
+                }
+                block.flip();
+                header.putLong(position);
+                while (block.hasRemaining()) {
+                    position += channel.write(block, position);
+                }
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Converts a text dataset (see {@link FileVectorDataset}) into a plan file.
+     * Usage: <code>MappedPlanStore &lt;datasetDir&gt; &lt;numAgents&gt; &lt;numPlans&gt; &lt;planDim&gt; &lt;planFile&gt;</code>
+     *
+     * @param args command line arguments
+     * @throws IOException if the plan file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: MappedPlanStore <datasetDir> <numAgents> <numPlans> <planDim> <planFile>");
+            System.exit(1);
+        }
+        int numAgents = Integer.parseInt(args[1]);
+        Configuration.numPlans = Integer.parseInt(args[2]);
+        int numDimensions = Integer.parseInt(args[3]);
+        MappedPlanStore.write(new FileVectorDataset(args[0]), numAgents, numDimensions, args[4]);
+        System.out.println("Plans of " + numAgents + " agents written to " + new File(args[4]).getAbsolutePath());
+    }
+}
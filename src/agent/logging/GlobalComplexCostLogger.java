@@ -15,7 +15,6 @@ import java.util.logging.Logger;
 
 import agent.Agent;
 import agent.MultiObjectiveIEPOSAgent;
-import agent.planselection.OptimizationFactor;
 import config.Configuration;
 import data.DataType;
 import protopeer.measurement.Aggregate;
@@ -50,14 +49,12 @@ public class GlobalComplexCostLogger<V extends DataType<V>> extends AgentLogger<
 		MultiObjectiveIEPOSAgent moagent = (MultiObjectiveIEPOSAgent) agent;
 		
 		if (moagent.isRoot()) {            	
-        	HashMap<OptimizationFactor, Object> parameters = new HashMap<OptimizationFactor, Object>();
-            parameters.put(OptimizationFactor.GLOBAL_COST, agent.getGlobalCostFunction().calcCost(agent.getGlobalResponse()));
-            parameters.put(OptimizationFactor.DISCOMFORT_SUM, moagent.getGlobalDiscomfortSum());
-            parameters.put(OptimizationFactor.DISCOMFORT_SUM_SQR, moagent.getGlobalDiscomfortSumSqr());
-            parameters.put(OptimizationFactor.ALPHA, moagent.getUnfairnessWeight());
-            parameters.put(OptimizationFactor.BETA, moagent.getLocalCostWeight());
-            parameters.put(OptimizationFactor.NUM_AGENTS, (double) Configuration.numAgents);
-            double cost = Configuration.planOptimizationFunction.apply(parameters);
+            double cost = Configuration.planOptimizationFunction.apply(agent.getGlobalCostFunction().calcCost(agent.getGlobalResponse()),
+            														   moagent.getGlobalDiscomfortSum(),
+            														   moagent.getGlobalDiscomfortSumSqr(),
+            														   moagent.getUnfairnessWeight(),
+            														   moagent.getLocalCostWeight(),
+            														   Configuration.numAgents);
             
             Token token = new Token(cost, agent.getIteration(), this.run);            
             log.log(epoch, GlobalComplexCostLogger.class.getName(), token, 1.0);
@@ -38,6 +38,7 @@ public class WorkLogger extends AgentLogger<Agent> {
         Token token = new Token(run, agent.getIteration());
         log.log(epoch, "numComputations", token, agent.getNumComputed());
         log.log(epoch, "numTransmitted", token, agent.getNumTransmitted());
+        log.log(epoch, "numCacheHits", token, agent.getNumCacheHits());
         log.log(epoch, "cumComputations", token, agent.getCumComputed());
         log.log(epoch, "cumTransmitted", token, agent.getCumTransmitted());
     }
@@ -52,6 +53,7 @@ public class WorkLogger extends AgentLogger<Agent> {
             Aggregate trans = log.getAggregate("numTransmitted", tokenObj);
             Aggregate ccomp = log.getAggregate("cumComputations", tokenObj);
             Aggregate ctrans = log.getAggregate("cumTransmitted", tokenObj);
+            Aggregate hits = log.getAggregate("numCacheHits", tokenObj);
             log2.log(0, "avgComp", token.iteration, comp.getAverage());
             log2.log(0, "maxComp", token.iteration, comp.getMax());
             log2.log(0, "avgTrans", token.iteration, trans.getAverage());
@@ -60,6 +62,7 @@ public class WorkLogger extends AgentLogger<Agent> {
             log2.log(0, "maxCComp", token.iteration, ccomp.getMax());
             log2.log(0, "avgCTrans", token.iteration, ctrans.getAverage());
             log2.log(0, "maxCTrans", token.iteration, ctrans.getMax());
+            log2.log(0, "avgCacheHits", token.iteration, hits.getAverage());
             num = Math.max(num, token.iteration);
         }
         internalPrint(log2, "avgComp", num + 1);
@@ -70,6 +73,7 @@ public class WorkLogger extends AgentLogger<Agent> {
         internalPrint(log2, "avgCTrans", num + 1);
         internalPrint(log2, "maxTrans", num + 1);
         internalPrint(log2, "maxCTrans", num + 1);
+        internalPrint(log2, "avgCacheHits", num + 1);
     }
 
     private void internalPrint(MeasurementLog log, String tag, int numIter) {
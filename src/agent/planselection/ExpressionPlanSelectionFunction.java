@@ -0,0 +1,102 @@
+package agent.planselection;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import func.expression.CompiledExpression;
+import func.expression.ExpressionCompiler;
+
+/**
+ * Plan selection optimization function given by an expression over the scalars
+ * <code>cost, discomfortSum, discomfortSumSqr, alpha, beta, numAgents</code>
+ * and the derived <code>unfairness</code> and <code>localCost</code>, e.g.
+ * <code>(1 - alpha - beta) * cost + alpha * unfairness + beta * localCost</code>.
+ * Used as a map-based function, the expression may also read <code>lambda, std</code>
+ * and <code>mean</code>; <code>localCost</code> is then the entry <code>LOCAL_COST</code>.
+ * Factors missing from the map are <code>NaN</code>.
+ * 
+ * @author Peter P. & Jovan N.
+ *
+ */
+public class ExpressionPlanSelectionFunction implements PrimitivePlanSelectionOptimizationFunction, PlanSelectionOptimizationFunction {
+	
+	private static final int COST = 0, DISCOMFORT_SUM = 1, DISCOMFORT_SUM_SQR = 2, ALPHA = 3, BETA = 4, NUM_AGENTS = 5,
+							 UNFAIRNESS = 6, LOCAL_COST = 7, LAMBDA = 8, STD = 9, MEAN = 10, NUM_SCALARS = 11;
+	
+	private final CompiledExpression		expression;
+	private final boolean					usesUnfairness;
+	private final boolean					usesLocalCost;
+	private final ThreadLocal<double[]>		scalars			=	ThreadLocal.withInitial(() -> new double[NUM_SCALARS]);
+	
+	/**
+	 * @param source the expression
+	 * @throws IllegalArgumentException if the expression cannot be compiled
+	 */
+	public ExpressionPlanSelectionFunction(String source) {
+		// declared in the order of the indices above
+		this.expression = new ExpressionCompiler()
+				.withScalar("cost")
+				.withScalar("discomfortSum")
+				.withScalar("discomfortSumSqr")
+				.withScalar("alpha")
+				.withScalar("beta")
+				.withScalar("numAgents")
+				.withScalar("unfairness")
+				.withScalar("localCost")
+				.withScalar("lambda")
+				.withScalar("std")
+				.withScalar("mean")
+				.compile(source);
+		this.usesUnfairness = this.expression.uses("unfairness");
+		this.usesLocalCost = this.expression.uses("localCost");
+	}
+
+	@Override
+	public double apply(double globalCost, double discomfortSum, double discomfortSumSqr,
+						double alpha, double beta, double numAgents) {
+		double[] values = this.scalars.get();
+		values[COST] = globalCost;
+		values[DISCOMFORT_SUM] = discomfortSum;
+		values[DISCOMFORT_SUM_SQR] = discomfortSumSqr;
+		values[ALPHA] = alpha;
+		values[BETA] = beta;
+		values[NUM_AGENTS] = numAgents;
+		values[UNFAIRNESS] = this.usesUnfairness ? PlanSelectionOptimizationFunctionCollection.unfairness(discomfortSum, discomfortSumSqr, numAgents) : Double.NaN;
+		values[LOCAL_COST] = this.usesLocalCost ? PlanSelectionOptimizationFunctionCollection.localCost(discomfortSum, numAgents) : Double.NaN;
+		values[LAMBDA] = Double.NaN;
+		values[STD] = Double.NaN;
+		values[MEAN] = Double.NaN;
+		return this.expression.evaluate(null, null, values);
+	}
+
+	@Override
+	public double apply(HashMap<OptimizationFactor, Object> parameters) {
+		double[] values = this.scalars.get();
+		Arrays.fill(values, Double.NaN);
+		values[COST] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.GLOBAL_COST);
+		values[DISCOMFORT_SUM] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.DISCOMFORT_SUM);
+		values[DISCOMFORT_SUM_SQR] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.DISCOMFORT_SUM_SQR);
+		values[ALPHA] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.ALPHA);
+		values[BETA] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.BETA);
+		values[NUM_AGENTS] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.NUM_AGENTS);
+		values[LOCAL_COST] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.LOCAL_COST);
+		values[LAMBDA] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.LAMBDA);
+		values[STD] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.STD);
+		values[MEAN] = ExpressionPlanSelectionFunction.get(parameters, OptimizationFactor.MEAN);
+		if(this.usesUnfairness) {
+			values[UNFAIRNESS] = PlanSelectionOptimizationFunctionCollection.unfairness(values[DISCOMFORT_SUM], values[DISCOMFORT_SUM_SQR], values[NUM_AGENTS]);
+		}
+		return this.expression.evaluate(null, null, values);
+	}
+	
+	private static double get(HashMap<OptimizationFactor, Object> parameters, OptimizationFactor factor) {
+		Object value = parameters.get(factor);
+		return value == null ? Double.NaN : ((Number) value).doubleValue();
+	}
+	
+	@Override
+	public String toString() {
+		return "expression " + this.expression.getSource();
+	}
+
+}
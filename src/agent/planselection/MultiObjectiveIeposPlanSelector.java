@@ -1,5 +1,6 @@
 package agent.planselection;
 
+import agent.ArgminCache;
 import agent.MultiObjectiveIEPOSAgent;
 import agent.PlanSelector;
 import data.DataType;
@@ -15,12 +16,12 @@ public class MultiObjectiveIeposPlanSelector<V extends DataType<V>> implements P
 
     @Override
     public int selectPlan(MultiObjectiveIEPOSAgent<V> agent) {
-        V otherResponse = agent.getGlobalResponse().cloneThis();
+        V otherResponse = agent.borrowGlobalResponse();
         otherResponse.subtract(agent.getPrevSelectedPlan().getValue());
         otherResponse.subtract(agent.getPrevAggregatedResponse());
         otherResponse.add(agent.getAggregatedResponse());
         
-        double score = agent.getLocalCostFunction().calcCost(agent.getPrevSelectedPlan());
+        double score = agent.getPrevSelectedPlan().getLocalCost(agent.getLocalCostFunction());
 //        if(((Vector)agent.getPrevSelectedPlan().getValue()).sum() == 0.0) {
 //        	score = 0.0;
 //        } else {
@@ -55,6 +56,15 @@ public class MultiObjectiveIeposPlanSelector<V extends DataType<V>> implements P
 //				" - prevPlanDiscomfortSqr(" + score*score + ") = " +
 //				currentDiscomfortSumSqr);
 
+        ArgminCache<V> cache = agent.getArgminCache();
+        double[] parameters = {agent.getUnfairnessWeight(), agent.getLocalCostWeight(),
+        					   currentDiscomfortSum, currentDiscomfortSumSqr, agent.getNumAgents()};
+        int cached = cache.lookup(otherResponse, parameters);
+        if(cached >= 0) {
+        	agent.setNumCacheHits(agent.getNumCacheHits() + 1);
+        	return cached;
+        }
+        
         int id =  agent.getOptimization().argmin(agent.getGlobalCostFunction(), 
         									  agent.getLocalCostFunction(),
         									  agent.getPossiblePlans(), 
@@ -68,12 +78,13 @@ public class MultiObjectiveIeposPlanSelector<V extends DataType<V>> implements P
         
 //        System.out.println("agent: " + agent.getPeer().getIndexNumber() + " Chosen id is: " + id);
         
+        cache.store(otherResponse, id, parameters);
         return id;
     }
 
     @Override
     public int getNumComputations(MultiObjectiveIEPOSAgent<V> agent) {
-        return agent.getPossiblePlans().size();
+        return agent.getArgminCache().isHit() ? 0 : agent.getOptimization().getNumPlansVisited();
     }
 
 }
@@ -78,14 +78,11 @@ public class PlanSelectionOptimizationFunctionCollection {
 	}
 	
 	
-	public static PlanSelectionOptimizationFunction complexFunction1 = (HashMap<OptimizationFactor, Object> map) -> {
-		double alpha			=	(double)	map.get(OptimizationFactor.ALPHA);
-		double beta				=	(double)	map.get(OptimizationFactor.BETA);
-		double discomfortSum	=	(double)	map.get(OptimizationFactor.DISCOMFORT_SUM);
-		double discomfortSumSqr =	(double)	map.get(OptimizationFactor.DISCOMFORT_SUM_SQR);
-		double global_cost		=	(double)	map.get(OptimizationFactor.GLOBAL_COST);
-		double numAgents		=	(double)	map.get(OptimizationFactor.NUM_AGENTS);
-		
+	/**
+	 * (1 - alpha - beta) * global cost + alpha * unfairness + beta * local cost
+	 */
+	public static PrimitivePlanSelectionOptimizationFunction complexFunction1 = (double global_cost, double discomfortSum, double discomfortSumSqr,
+																				 double alpha, double beta, double numAgents) -> {
 		double local_cost		=	localCost(discomfortSum, numAgents);
 		double unfairness		=	unfairness(discomfortSum, discomfortSumSqr, numAgents); 
 		
@@ -0,0 +1,40 @@
+package agent.planselection;
+
+import java.util.HashMap;
+
+/**
+ * Plan selection optimization function that receives its arguments as primitives.
+ * It is evaluated for every plan and every combination of children, so unlike
+ * {@link PlanSelectionOptimizationFunction} it neither allocates a map nor boxes
+ * its arguments.
+ * 
+ * @author jovan
+ *
+ */
+@FunctionalInterface
+public interface PrimitivePlanSelectionOptimizationFunction {
+	
+	public double apply(double globalCost,	double discomfortSum,	double discomfortSumSqr,
+						double alpha,		double beta,			double numAgents);
+	
+	/**
+	 * Adapts a user-defined map-based function. The map is built for every call,
+	 * exactly as before, so the adapted function is as slow as the original one.
+	 * @param function map-based function reading <code>GLOBAL_COST, DISCOMFORT_SUM,
+	 * DISCOMFORT_SUM_SQR, ALPHA, BETA</code> and <code>NUM_AGENTS</code>
+	 * @return primitive function
+	 */
+	public static PrimitivePlanSelectionOptimizationFunction fromMap(PlanSelectionOptimizationFunction function) {
+		return (globalCost, discomfortSum, discomfortSumSqr, alpha, beta, numAgents) -> {
+			HashMap<OptimizationFactor, Object> parameters = new HashMap<OptimizationFactor, Object>();
+			parameters.put(OptimizationFactor.GLOBAL_COST, globalCost);
+			parameters.put(OptimizationFactor.DISCOMFORT_SUM, discomfortSum);
+			parameters.put(OptimizationFactor.DISCOMFORT_SUM_SQR, discomfortSumSqr);
+			parameters.put(OptimizationFactor.ALPHA, alpha);
+			parameters.put(OptimizationFactor.BETA, beta);
+			parameters.put(OptimizationFactor.NUM_AGENTS, numAgents);
+			return function.apply(parameters);
+		};
+	}
+
+}
@@ -1,5 +1,6 @@
 package config;
 
+import java.io.IOException;
 import java.util.Properties;
 import java.util.logging.Level;
 
@@ -10,7 +11,13 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
+import agent.combinationsearch.BeamCombinationSearch;
+import agent.combinationsearch.BranchAndBoundCombinationSearch;
+import agent.combinationsearch.ExhaustiveCombinationSearch;
+import agent.combinationsearch.GreedyCombinationSearch;
 import agent.dataset.DatasetDescriptor;
+import agent.dataset.MappedPlanStore;
+import agent.planselection.ExpressionPlanSelectionFunction;
 import data.Vector;
 import func.CrossCorrelationCostFunction;
 import func.IndexCostFunction;
@@ -18,8 +25,13 @@ import func.PlanScoreCostFunction;
 import func.PreferencePlanCostFunction;
 import func.RMSECostFunction;
 import func.RSSCostFunction;
+import func.SqrDistCostFunction;
+import func.TargetTrackingCostFunction;
 import func.VarCostFunction;
+import func.expression.ExpressionCostFunction;
+import func.expression.ExpressionPlanCostFunction;
 import func.goalsignals.GoalSignalsCollection;
+import func.goalsignals.MemoizedGoalSignal;
 import treestructure.reorganizationstrategies.ReorganizationPredefined;
 import treestructure.reorganizationstrategies.ReorganizationStrategy.ReorganizationStrategyType;
 
@@ -55,6 +67,16 @@ public class CommandLineArgumentReader {
 		opts.addOption("numPlans", 		true, "The maximum number of possible plans per agent. Lower than this is possible. If more exist in the file, only first numPlan rows are read. Default is 16.");
 		opts.addOption("planDim", 		true, "Dimension of every possible plan of every agent. Must be equal across the agents and must correspond to the dataset. Default to -1 and must be set!");
 		opts.addOption("numChildren", 	true, "Number of children of each inner node. Default is 2.");
+		opts.addOption("combinationSearch", 	true, "Strategy for selecting the changes of children to accept. Options are (case-sensitive): EXHAUSTIVE to evaluate all 2^numChildren combinations, BNB for exact branch-and-bound, BEAM for approximate beam search and GREEDY for approximate greedy coordinate descent. Default is EXHAUSTIVE.");
+		opts.addOption("parallelThreshold", 	true, "Minimal number of plans of an agent for which plan costs are computed in parallel. Selected plans do not depend on this setting. Default is 2048.");
+		opts.addOption("closedFormScoring", 	false, "Scores the plans of an agent for VAR (and other quadratic cost functions) in closed form with one matrix-vector product instead of evaluating every plan exactly. Faster, but the rounding differs from the exact evaluation, so ties between equally good plans may be broken differently.");
+		opts.addOption("gramCombinations", 		false, "Scores the combinations of children for VAR (and other quadratic cost functions) in closed form from the Gram matrix of the child deltas, in O(numChildren) instead of O(planDim) per combination. It also gives BNB a lower bound. Faster for many children, but the rounding differs from the exact evaluation, so ties between equally good combinations may be broken differently.");
+		opts.addOption("beamWidth", 			true, "Number of partial combinations kept by BEAM combination search. Default is 4.");
+		opts.addOption("sparseDensity", 		true, "Plans of an agent read from a dataset are stored sparse if the fraction of non-zero values is below this density. 0 disables sparse storage. Default is 0.25.");
+		opts.addOption("planStore", 			true, 	"Binary plan file created by agent.dataset.MappedPlanStore. Plans are memory-mapped from it instead of being read from the dataset folder. Its plan dimension must equal -planDim and it must hold plans of at least -numAgents agents.");
+		opts.addOption("floatPlans", 			false, 	"Stores dense plans in single precision to halve their memory footprint. Costs and responses are still computed in double precision.");
+		opts.addOption("planIndex", 			true, 	"Selects plans for squared-distance costs (-setGlobalCostFunc SQRDIST, or RSS with -setScaling NONE) with a nearest-neighbour index over the plans of each agent. Rejected for other global cost functions. The argument is the approximation factor epsilon: 0 is exact, a positive value may return a plan up to (1 + epsilon) times farther than the nearest one. Disabled by default.");
+		opts.addOption("argminCache", 			true, 	"Reuses the previous plan selection of an agent when its inputs (the response of the other agents, lambda, alpha, beta and the discomfort sums) differ from the previous ones by at most the given epsilon in every dimension. 0 reuses it only for identical inputs. Disabled by default.");
 	
 		opts.addOption("shuffle", 				true, "The number of the shuffles to make before assigning agents to the tree hierarchy. Default is 0.");
 		opts.addOption("shuffleFile", 			true, "The path to a file containing already shuffled agents in one column, no header. Default is null.");
@@ -66,10 +88,13 @@ public class CommandLineArgumentReader {
 		opts.addOption("enablePREDEFINEDstrategy", 			false, 	"Enabling starting IEPOS with predefined selected plans, but default strategy is to NEVER reorganize.");
 		opts.addOption("enableGLOBALCOSTREDUCTIONstrategy", true, 	"Enabling reorganization strategy based on GLOBAL_COST_REDUCTION strategy with indicated tolerance level. 0 <= Tolerane Level <= 1. Default is 0.5, but default strategy is to NEVER reorganize.");
 		
-		opts.addOption("goalSignalType", 		true, 	"The reference signal, paired with RSS, XCORR or RMSE global cost function, otherwise ignored. Options are: either an integer from [1, 19] to use predetermined signals, or path to a file with the signal in one column. The length of the signal from the file must correspond planDim option. Default is signal type 1.");
-		opts.addOption("setGlobalCostFunc", 	true, 	"The global cost function to be used. Options are (case-sensitive): VAR for variance function, XCORR for negative cross-correlation, RSS for residual sum of squares and RMSE for residual mean square error. Default is VAR. XCORR uses standard normalization by definition, RMSE has its own way of scaling and RSS uses standard normalization by default.");
-		opts.addOption("setScaling", 			true, 	"The scaling technique to be used with RSS function, ignored otherwise. Options are (case-sensitive): STD for standard normalization, MIN-MAX for min-max scaling and UNIT-lENGTH for unit-length scaling. Default is STD.");
+		opts.addOption("goalSignalType", 		true, 	"The reference signal, paired with RSS, XCORR, RMSE or SQRDIST global cost function, otherwise ignored. Options are: either an integer from [1, 19] to use predetermined signals, or path to a file with the signal in one column. The length of the signal from the file must correspond planDim option. Default is signal type 1.");
+		opts.addOption("setGlobalCostFunc", 	true, 	"The global cost function to be used. Options are (case-sensitive): VAR for variance function, XCORR for negative cross-correlation, RSS for residual sum of squares, RMSE for residual mean square error and SQRDIST for the squared Euclidean distance to the goal signal. Default is VAR. XCORR uses standard normalization by definition, RMSE has its own way of scaling and RSS uses standard normalization by default.");
+		opts.addOption("setScaling", 			true, 	"The scaling technique to be used with RSS function, ignored otherwise. Options are (case-sensitive): STD for standard normalization, MIN-MAX for min-max scaling, UNIT-lENGTH for unit-length scaling and NONE for no scaling. Default is STD.");
 		opts.addOption("setLocalCostFunc", 		true, 	"The local cost function. Options are (case-sensitive): COST for cost plan score, PREF for preference plan score, which is converted to COST by 1 - PREF, INDEX for plan indicies to be used as costs. Default is COST.");
+		opts.addOption("globalCostExpression", 		true, 	"Expression of the global cost function over the response x, its dimension n and the goal signal goal, e.g. \"sum((x - goal)^2)\". Overrides setGlobalCostFunc. Operators + - * / ^ and sqrt, abs, exp, log, pow, min, max apply element-wise, sum, mean, var, std, norm, dot, min and max reduce vectors to scalars.");
+		opts.addOption("localCostExpression", 		true, 	"Expression of the local cost function over the plan value x, its dimension n, the plan score and the plan index, e.g. \"score + 0.1 * std(x)\". Overrides setLocalCostFunc.");
+		opts.addOption("planSelectionExpression", 	true, 	"Expression of the plan selection function over cost, discomfortSum, discomfortSumSqr, alpha, beta, numAgents, unfairness and localCost. Default is \"(1 - alpha - beta) * cost + alpha * unfairness + beta * localCost\".");
 		
 		opts.addOption("logLevel", 				true, 	"The log level. Options are (case-sensitive): SEVERE, ALL, INFO, WARNING, FINE, FINER, FINEST");
 		
@@ -138,6 +163,76 @@ public class CommandLineArgumentReader {
 		if (argMap.get("numChildren") != null) {
 			Configuration.numChildren = Integer.parseInt((String) argMap.get("numChildren"));
 		}
+		if (argMap.get("parallelThreshold") != null) {
+			Configuration.parallelThreshold = Integer.parseInt((String) argMap.get("parallelThreshold"));
+		}
+		if (argMap.get("closedFormScoring") != null) {
+			Configuration.closedFormScoring = true;
+		}
+		if (argMap.get("gramCombinations") != null) {
+			Configuration.gramCombinations = true;
+		}
+		if (argMap.get("beamWidth") != null) {
+			Configuration.beamWidth = Integer.parseInt((String) argMap.get("beamWidth"));
+		}
+		if (argMap.get("sparseDensity") != null) {
+			Configuration.sparsePlanDensity = Double.parseDouble((String) argMap.get("sparseDensity"));
+		}
+		if (argMap.get("floatPlans") != null) {
+			Configuration.floatPlans = true;
+		}
+		if (argMap.get("planIndex") != null) {
+			Configuration.planIndexEpsilon = Double.parseDouble((String) argMap.get("planIndex"));
+			if (Configuration.planIndexEpsilon < 0) {
+				System.err.println("planIndex must not be negative: " + Configuration.planIndexEpsilon);
+				System.exit(1);
+			}
+		}
+		if (argMap.get("argminCache") != null) {
+			Configuration.argminCacheEpsilon = Double.parseDouble((String) argMap.get("argminCache"));
+			if (Configuration.argminCacheEpsilon < 0) {
+				System.err.println("argminCache must not be negative: " + Configuration.argminCacheEpsilon);
+				System.exit(1);
+			}
+		}
+		if (argMap.get("planStore") != null) {
+			String path = (String) argMap.get("planStore");
+			try {
+				Configuration.planStore = MappedPlanStore.open(path);
+			} catch (IOException e) {
+				System.err.println("Could not open plan store " + path + ": " + e.getMessage());
+				System.exit(1);
+			}
+			if (Configuration.planStore.getNumDimensions() != Configuration.numDimensions) {
+				System.err.println("Plan store " + path + " holds plans of dimension " + Configuration.planStore.getNumDimensions()
+						+ ", but -planDim is " + Configuration.numDimensions);
+				System.exit(1);
+			}
+			if (Configuration.numAgents > Configuration.planStore.getNumAgents()) {
+				System.err.println("Plan store " + path + " holds plans of " + Configuration.planStore.getNumAgents()
+						+ " agents, but -numAgents is " + Configuration.numAgents);
+				System.exit(1);
+			}
+		}
+		if (argMap.get("combinationSearch") != null) {
+			String search = (String) argMap.get("combinationSearch");
+			switch (search) {
+			case "EXHAUSTIVE":
+				Configuration.combinationSearch = new ExhaustiveCombinationSearch();
+				break;
+			case "BNB":
+				Configuration.combinationSearch = new BranchAndBoundCombinationSearch();
+				break;
+			case "BEAM":
+				Configuration.combinationSearch = new BeamCombinationSearch(Configuration.beamWidth);
+				break;
+			case "GREEDY":
+				Configuration.combinationSearch = new GreedyCombinationSearch();
+				break;
+			default:
+				break;
+			}
+		}
 		if(argMap.get("shuffleFile") != null) {
 			Configuration.permutationFile = (String) argMap.get("shuffleFile");
 			Configuration.mapping = config.readMapping.apply(config);
@@ -256,6 +351,9 @@ public class CommandLineArgumentReader {
 			case "UNIT-LENGTH":
 				Configuration.normalizer = Vector.unit_length_normalization;
 				break;
+			case "NONE":
+				Configuration.normalizer = Vector.no_normalization;
+				break;
 			default:
 				break;
 			}
@@ -278,6 +376,9 @@ public class CommandLineArgumentReader {
 				Configuration.globalCostFunc = new CrossCorrelationCostFunction();
 				CrossCorrelationCostFunction.populateGoalSignal();
 				break;
+			case "SQRDIST":
+				Configuration.globalCostFunc = new SqrDistCostFunction(MemoizedGoalSignal.prepare(Configuration.goalSignalSupplier).getSignal());
+				break;
 			default:
 				break;
 			}
@@ -298,6 +399,27 @@ public class CommandLineArgumentReader {
 				break;
 			}
 		}				
+		try {
+			if(argMap.get("globalCostExpression") != null) {
+				Configuration.globalCostFunc = new ExpressionCostFunction((String) argMap.get("globalCostExpression"));
+			}
+			if(argMap.get("localCostExpression") != null) {
+				Configuration.localCostFunc = new ExpressionPlanCostFunction((String) argMap.get("localCostExpression"));
+			}
+			if(argMap.get("planSelectionExpression") != null) {
+				Configuration.planOptimizationFunction = new ExpressionPlanSelectionFunction((String) argMap.get("planSelectionExpression"));
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+		if (Configuration.planIndexEpsilon >= 0) {
+			if (!(Configuration.globalCostFunc instanceof TargetTrackingCostFunction)
+					|| ((TargetTrackingCostFunction) Configuration.globalCostFunc).getTrackingTarget() == null) {
+				System.err.println("planIndex requires a squared-distance global cost function: -setGlobalCostFunc SQRDIST, or RSS with -setScaling NONE");
+				System.exit(1);
+			}
+		}
 		if (argMap.get("logLevel") != null) {
 			String level = (String) argMap.get("logLevel");
 			switch(level) {
@@ -8,12 +8,15 @@ import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 
+import agent.combinationsearch.CombinationSearch;
+import agent.combinationsearch.ExhaustiveCombinationSearch;
 import agent.dataset.Dataset;
 import agent.dataset.DatasetDescriptor;
 import agent.dataset.DatasetShuffler;
 import agent.dataset.FileVectorDataset;
 import agent.dataset.GaussianDataset;
-import agent.planselection.PlanSelectionOptimizationFunction;
+import agent.dataset.MappedPlanStore;
+import agent.planselection.PrimitivePlanSelectionOptimizationFunction;
 import agent.planselection.PlanSelectionOptimizationFunctionCollection;
 import data.Vector;
 import dsutil.generic.RankPriority;
@@ -77,7 +80,17 @@ public class Configuration {
 	public static PlanCostFunction					localCostFunc				= 	new IndexCostFunction();
 	public static Supplier<Vector> 					goalSignalSupplier			=	GoalSignalsCollection.sine_a100_o0; 
 	public static UnaryOperator<Vector> 			normalizer					=	Vector.standard_normalization;
-	public static PlanSelectionOptimizationFunction	planOptimizationFunction	=	PlanSelectionOptimizationFunctionCollection.complexFunction1;
+	public static PrimitivePlanSelectionOptimizationFunction	planOptimizationFunction	=	PlanSelectionOptimizationFunctionCollection.complexFunction1;
+	public static CombinationSearch					combinationSearch			=	new ExhaustiveCombinationSearch();
+	public static int								beamWidth					=	4;
+	public static boolean							gramCombinations			=	false;	// child combinations of quadratic costs are scored in closed form from the Gram matrix of the deltas
+	public static int								parallelThreshold			=	2048;	// minimal number of plans scored in parallel
+	public static boolean							closedFormScoring			=	false;	// plans are scored from cached plan terms and one matrix-vector product instead of exactly
+	public static double							sparsePlanDensity			=	0.25;	// plans read from files are stored sparse below this fraction of non-zeros
+	public static boolean							floatPlans					=	false;	// dense plans are stored in single precision
+	public static MappedPlanStore					planStore					=	null;	// if set, plans are read from this memory-mapped file
+	public static double							planIndexEpsilon			=	-1;		// nearest-neighbour plan index: negative disables it, 0 is exact, positive is approximate
+	public static double							argminCacheEpsilon			=	-1;		// reuse of the last plan selection: negative disables it, 0 requires identical inputs, positive tolerates this difference
 
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	// SEEDS:
@@ -151,7 +164,14 @@ public class Configuration {
 		return new GaussianDataset(numPlans, numDimensions, 0, 1, random);		
 	}
 	
+	/**
+	 * Returns the memory-mapped plan store if one is configured, otherwise the
+	 * text dataset in the folder <code>datasets/datasetName</code>.
+	 */
 	public Dataset<Vector> getDataset(String datasetName) {
+		if(Configuration.planStore != null) {
+			return Configuration.planStore;
+		}
 		FileVectorDataset dataset = new FileVectorDataset("datasets/" + datasetName + "/");
 		return dataset;
 	}
@@ -258,6 +278,15 @@ public class Configuration {
 		sb.append("numDimensions = ").append(Configuration.numDimensions).append(System.lineSeparator());		
 		sb.append("numIterations = ").append(Configuration.numIterations).append(System.lineSeparator());
 		sb.append("numChildren = ").append(Configuration.numChildren).append(System.lineSeparator());
+		sb.append("combinationSearch = ").append(Configuration.combinationSearch).append(System.lineSeparator());
+		sb.append("gramCombinations = ").append(Configuration.gramCombinations).append(System.lineSeparator());
+		sb.append("parallelThreshold = ").append(Configuration.parallelThreshold).append(System.lineSeparator());
+		sb.append("closedFormScoring = ").append(Configuration.closedFormScoring).append(System.lineSeparator());
+		sb.append("sparsePlanDensity = ").append(Configuration.sparsePlanDensity).append(System.lineSeparator());
+		sb.append("floatPlans = ").append(Configuration.floatPlans).append(System.lineSeparator());
+		sb.append("planStore = ").append(Configuration.planStore == null ? "none" : Configuration.planStore.getNumAgents() + " agents").append(System.lineSeparator());
+		sb.append("planIndexEpsilon = ").append(Configuration.planIndexEpsilon).append(System.lineSeparator());
+		sb.append("argminCacheEpsilon = ").append(Configuration.argminCacheEpsilon).append(System.lineSeparator());
 		sb.append("--------------").append(System.lineSeparator());
 		sb.append("lambda = ").append(this.lambda).append(System.lineSeparator());
 		sb.append("alpha = ").append(this.alpha).append(System.lineSeparator());
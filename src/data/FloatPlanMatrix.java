@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.util.List;
+
+/**
+ * Plan matrix that stores all values in a single contiguous, row-major
+ * <code>float[]</code>, which halves the memory footprint of the plans
+ * compared to {@link DensePlanMatrix}. Values are widened to double inside
+ * the row kernels, so all accumulation happens in double precision and the
+ * vectors the rows are added to or multiplied with stay in double.
+ *
+ * Plans read from text files usually carry no more than 6-7 significant
+ * digits, which single precision represents.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class FloatPlanMatrix extends PlanMatrix {
+
+    private static final long serialVersionUID = 1L;
+
+    private final float[] values;
+
+    /**
+     * Creates a new matrix for the given number of plans of the given
+     * dimensionality. All values, scores and indices are 0.
+     *
+     * @param numPlans number of plans (rows)
+     * @param numDimensions dimensionality of every plan (columns)
+     */
+    public FloatPlanMatrix(int numPlans, int numDimensions) {
+        this(new float[numPlans * numDimensions], new double[numPlans], new int[numPlans], 0, numPlans, numDimensions);
+    }
+
+    private FloatPlanMatrix(float[] values, double[] scores, int[] indices, int firstPlan, int numPlans, int numDimensions) {
+        super(scores, indices, firstPlan, numPlans, numDimensions);
+        this.values = values;
+    }
+
+    /**
+     * Copies the given plans into a new matrix, rounding the values to single
+     * precision. Scores and indices are copied as they are.
+     *
+     * @param plans list of plans, user must ensure that they are of equal size
+     * @return a new matrix holding the given plans
+     */
+    public static FloatPlanMatrix fromPlans(List<? extends Plan<Vector>> plans) {
+        int numDimensions = plans.isEmpty() ? 0 : plans.get(0).getValue().getNumDimensions();
+        FloatPlanMatrix matrix = new FloatPlanMatrix(plans.size(), numDimensions);
+        for (int i = 0; i < plans.size(); i++) {
+            Plan<Vector> plan = plans.get(i);
+            matrix.setRow(i, plan.getValue());
+            matrix.setScore(i, plan.getScore());
+            matrix.setIndex(i, plan.getIndex());
+        }
+        return matrix;
+    }
+
+    /**
+     * Copies the given matrix into a new matrix, rounding the values to single
+     * precision. Scores and indices are copied as they are.
+     *
+     * @param matrix the matrix to copy
+     * @return a new matrix holding the plans of the given matrix
+     */
+    public static FloatPlanMatrix fromMatrix(PlanMatrix matrix) {
+        FloatPlanMatrix copy = new FloatPlanMatrix(matrix.getNumPlans(), matrix.getNumDimensions());
+        for (int i = 0; i < matrix.getNumPlans(); i++) {
+            for (int j = 0; j < matrix.getNumDimensions(); j++) {
+                copy.setValue(i, j, matrix.getValue(i, j));
+            }
+            copy.setScore(i, matrix.getScore(i));
+            copy.setIndex(i, matrix.getIndex(i));
+        }
+        return copy;
+    }
+
+    @Override
+    public FloatPlanMatrix subMatrix(int fromPlan, int numPlans) {
+        checkRows(fromPlan, numPlans);
+        return new FloatPlanMatrix(values, scores, indices, firstPlan + fromPlan, numPlans, numDimensions);
+    }
+
+    private int offset(int plan) {
+        return (firstPlan + plan) * numDimensions;
+    }
+
+    @Override
+    public double getValue(int plan, int idx) {
+        return values[offset(plan) + idx];
+    }
+
+    /**
+     * Stores the value rounded to single precision
+     */
+    public void setValue(int plan, int idx, double value) {
+        values[offset(plan) + idx] = (float) value;
+    }
+
+    /**
+     * Copies the values of the given vector, rounded to single precision, into the row of the plan
+     * @param plan - row of the plan
+     * @param vector - user must ensure that vector.getNumDimensions() == getNumDimensions()
+     */
+    public void setRow(int plan, Vector vector) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            values[off + i] = (float) vector.getValue(i);
+        }
+    }
+
+    @Override
+    public void copyRow(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, values[off + i]);
+        }
+    }
+
+    @Override
+    public void addRowTo(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, target.getValue(i) + values[off + i]);
+        }
+    }
+
+    @Override
+    public void subtractRowFrom(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, target.getValue(i) - values[off + i]);
+        }
+    }
+
+    @Override
+    public double dotRow(int plan, Vector other) {
+        int off = offset(plan);
+        double dot = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            dot += values[off + i] * other.getValue(i);
+        }
+        return dot;
+    }
+
+    @Override
+    public double rowSum(int plan) {
+        int off = offset(plan);
+        double sum = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            sum += values[off + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double rowNormSqr(int plan) {
+        int off = offset(plan);
+        double sum = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            double val = values[off + i];
+            sum += val * val;
+        }
+        return sum;
+    }
+
+    @Override
+    public double sqrDistRow(int plan, Vector other) {
+        int off = offset(plan);
+        double sum = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            double diff = values[off + i] - other.getValue(i);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Rows are processed in blocks of four, so every loaded value of
+     * <code>x</code> is used four times.
+     */
+    @Override
+    public void multiply(Vector x, double[] out, int from, int to) {
+        int d = numDimensions;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            int off0 = offset(i);
+            int off1 = off0 + d;
+            int off2 = off1 + d;
+            int off3 = off2 + d;
+            double dot0 = 0, dot1 = 0, dot2 = 0, dot3 = 0;
+            for (int j = 0; j < d; j++) {
+                double xj = x.getValue(j);
+                dot0 += values[off0 + j] * xj;
+                dot1 += values[off1 + j] * xj;
+                dot2 += values[off2 + j] * xj;
+                dot3 += values[off3 + j] * xj;
+            }
+            out[i] = dot0;
+            out[i + 1] = dot1;
+            out[i + 2] = dot2;
+            out[i + 3] = dot3;
+        }
+        for (; i < to; i++) {
+            out[i] = dotRow(i, x);
+        }
+    }
+}
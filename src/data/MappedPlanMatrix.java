@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Plan matrix whose values live outside of the heap, in a region of a
+ * memory-mapped file. The matrix is a zero-copy view: it only remembers the
+ * buffer and the first row, and reads the values with absolute gets. Scores
+ * and indices are small and kept on the heap.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class MappedPlanMatrix extends PlanMatrix {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DoubleBuffer values;
+
+    /**
+     * @param values buffer whose first <code>numPlans * numDimensions</code>
+     * values hold the plans in row-major order
+     * @param scores scores of the plans
+     * @param indices indices of the plans
+     * @param numDimensions dimensionality of every plan
+     */
+    public MappedPlanMatrix(DoubleBuffer values, double[] scores, int[] indices, int numDimensions) {
+        this(values, scores, indices, 0, scores.length, numDimensions);
+    }
+
+    private MappedPlanMatrix(DoubleBuffer values, double[] scores, int[] indices, int firstPlan, int numPlans, int numDimensions) {
+        super(scores, indices, firstPlan, numPlans, numDimensions);
+        this.values = values;
+    }
+
+    @Override
+    public MappedPlanMatrix subMatrix(int fromPlan, int numPlans) {
+        checkRows(fromPlan, numPlans);
+        return new MappedPlanMatrix(values, scores, indices, firstPlan + fromPlan, numPlans, numDimensions);
+    }
+
+    private int offset(int plan) {
+        return (firstPlan + plan) * numDimensions;
+    }
+
+    @Override
+    public double getValue(int plan, int idx) {
+        return values.get(offset(plan) + idx);
+    }
+
+    @Override
+    public void copyRow(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, values.get(off + i));
+        }
+    }
+
+    @Override
+    public void addRowTo(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, target.getValue(i) + values.get(off + i));
+        }
+    }
+
+    @Override
+    public void subtractRowFrom(int plan, Vector target) {
+        int off = offset(plan);
+        for (int i = 0; i < numDimensions; i++) {
+            target.setValue(i, target.getValue(i) - values.get(off + i));
+        }
+    }
+
+    @Override
+    public double dotRow(int plan, Vector other) {
+        int off = offset(plan);
+        double dot = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            dot += values.get(off + i) * other.getValue(i);
+        }
+        return dot;
+    }
+
+    @Override
+    public double rowSum(int plan) {
+        int off = offset(plan);
+        double sum = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            sum += values.get(off + i);
+        }
+        return sum;
+    }
+
+    @Override
+    public double rowNormSqr(int plan) {
+        int off = offset(plan);
+        double sum = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            double val = values.get(off + i);
+            sum += val * val;
+        }
+        return sum;
+    }
+}
@@ -17,6 +17,7 @@
  */
 package data;
 
+import func.PlanCostFunction;
 import java.io.Serializable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,6 +33,11 @@ public class Plan<V extends DataType<V>> implements HasValue<V>, Serializable, C
     private int index;
     private double score;
 
+    // derived from the plan and computed on first use
+    private transient PlanStats stats;
+    private transient PlanCostFunction<V> localCostFunction;
+    private transient double localCost;
+
     public Plan(V value) {
         this.value = value;
     }
@@ -46,6 +52,7 @@ public class Plan<V extends DataType<V>> implements HasValue<V>, Serializable, C
 
     public void setIndex(int index) {
         this.index = index;
+        this.localCostFunction = null;
     }
 
     public double getScore() {
@@ -54,6 +61,49 @@ public class Plan<V extends DataType<V>> implements HasValue<V>, Serializable, C
 
     public void setScore(double discomfort) {
         this.score = discomfort;
+        this.localCostFunction = null;
+    }
+
+    /**
+     * Returns the statistics of the values of this plan. They are computed on
+     * the first call; the values of a plan must not be modified afterwards.
+     *
+     * @return statistics of the plan values
+     * @throws UnsupportedOperationException if the value is not a {@link Vector}
+     */
+    public PlanStats getStats() {
+        if (stats == null) {
+            if (!(value instanceof Vector)) {
+                throw new UnsupportedOperationException("Statistics are only available for vector plans");
+            }
+            stats = PlanStats.of((Vector) value);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the local cost of this plan. The cost of the most recently used
+     * local cost function is cached, and recomputed after the index or score
+     * of the plan changes. Local cost functions must therefore depend on
+     * nothing but the plan.
+     *
+     * @param localCostFunction the local cost function
+     * @return <code>localCostFunction.calcCost(this)</code>
+     */
+    public double getLocalCost(PlanCostFunction<V> localCostFunction) {
+        if (this.localCostFunction != localCostFunction) {
+            this.localCost = localCostFunction.calcCost(this);
+            this.localCostFunction = localCostFunction;
+        }
+        return this.localCost;
+    }
+
+    /**
+     * Sets the cached local cost, e.g. when it was computed on a copy of this plan.
+     */
+    void setLocalCost(PlanCostFunction<V> localCostFunction, double localCost) {
+        this.localCost = localCost;
+        this.localCostFunction = localCostFunction;
     }
 
     public Plan<V> cloneThis() {
@@ -81,6 +131,8 @@ public class Plan<V extends DataType<V>> implements HasValue<V>, Serializable, C
             clone.value = value.cloneNew();
             clone.score = Double.NaN;
             clone.index = 0;
+            clone.stats = null;
+            clone.localCostFunction = null;
             return clone;
         } catch (CloneNotSupportedException ex) {
             Logger.getLogger(Plan.class.getName()).log(Level.SEVERE, null, ex);
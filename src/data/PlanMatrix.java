@@ -0,0 +1,474 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import func.PlanCostFunction;
+
+/**
+ * Stores the possible plans of one agent (or of all agents) in contiguous
+ * primitive arrays instead of one <code>Plan -> Vector -> double[]</code>
+ * chain per plan. Scores and indices are kept in parallel arrays, while the
+ * values are stored by the subclass: {@link DensePlanMatrix} keeps a single
+ * row-major <code>double[]</code>, {@link SparsePlanMatrix} keeps only the
+ * non-zero values in compressed sparse row format. Plan scoring walks the rows
+ * through the row kernels of this class, so it scales with the stored values.
+ *
+ * Plan objects are only created on demand through {@link #getPlan(int)} or the
+ * list view returned by {@link #asPlans()}, so an agent normally materializes
+ * just the plans it actually selects.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public abstract class PlanMatrix implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final double[] scores;
+    final int[] indices;
+    final int firstPlan;			// row offset of this matrix in the (possibly shared) arrays
+    final int numPlans;
+    final int numDimensions;
+
+    private transient Plan<Vector>[] plans;
+    // lazily computed row caches, may be requested concurrently by the tasks of a parallel scoring pass
+    private transient volatile double[] rowSums;
+    private transient volatile double[] rowNormSqrs;
+    private transient volatile double[] rowM2s;
+    private transient PlanCostFunction<Vector> localCostFunction;
+    private transient double[] localCosts;
+    private transient volatile VantagePointTree vantagePointTree;
+
+    PlanMatrix(double[] scores, int[] indices, int firstPlan, int numPlans, int numDimensions) {
+        this.scores = scores;
+        this.indices = indices;
+        this.firstPlan = firstPlan;
+        this.numPlans = numPlans;
+        this.numDimensions = numDimensions;
+    }
+
+    /**
+     * Copies the given plans into a new dense matrix. Values, scores and
+     * indices are copied as they are.
+     *
+     * @param plans list of plans, user must ensure that they are of equal size
+     * @return a new matrix holding the given plans
+     */
+    public static PlanMatrix fromPlans(List<? extends Plan<Vector>> plans) {
+        return DensePlanMatrix.fromPlans(plans);
+    }
+
+    /**
+     * Copies the given plans into a new matrix. The matrix is sparse if the
+     * fraction of non-zero values is below <code>maxSparseDensity</code>, and
+     * dense otherwise.
+     *
+     * @param plans list of plans, user must ensure that they are of equal size
+     * @param maxSparseDensity density below which a sparse matrix is created;
+     * 0 always creates a dense matrix
+     * @return a new matrix holding the given plans
+     */
+    public static PlanMatrix fromPlans(List<? extends Plan<Vector>> plans, double maxSparseDensity) {
+        return PlanMatrix.fromPlans(plans, maxSparseDensity, false);
+    }
+
+    /**
+     * Copies the given plans into a new matrix. The matrix is sparse if the
+     * fraction of non-zero values is below <code>maxSparseDensity</code>.
+     * Otherwise it is dense, storing the values in single precision if
+     * <code>singlePrecision</code> is set.
+     *
+     * @param plans list of plans, user must ensure that they are of equal size
+     * @param maxSparseDensity density below which a sparse matrix is created;
+     * 0 always creates a dense matrix
+     * @param singlePrecision whether a dense matrix stores floats instead of doubles
+     * @return a new matrix holding the given plans
+     */
+    public static PlanMatrix fromPlans(List<? extends Plan<Vector>> plans, double maxSparseDensity, boolean singlePrecision) {
+        long numValues = 0;
+        long numNonZeros = 0;
+        for (Plan<Vector> plan : plans) {
+            Vector vector = plan.getValue();
+            numValues += vector.getNumDimensions();
+            numNonZeros += SparsePlanMatrix.countNonZeros(vector);
+        }
+        if (numValues > 0 && numNonZeros < maxSparseDensity * numValues) {
+            return SparsePlanMatrix.fromPlans(plans);
+        }
+        if (singlePrecision) {
+            return FloatPlanMatrix.fromPlans(plans);
+        }
+        return DensePlanMatrix.fromPlans(plans);
+    }
+
+    /**
+     * Returns the matrix that backs the given list of plans. If the list is a
+     * view created by {@link #asPlans()}, its matrix is returned as is.
+     * Otherwise the plans are copied into a new matrix, provided that they
+     * hold {@link Vector} values.
+     *
+     * @param plans list of plans of one agent
+     * @return the backing matrix, or <code>null</code> if the list is empty or
+     * the plans are not vectors
+     */
+    @SuppressWarnings("unchecked")
+    public static PlanMatrix of(List<? extends Plan<?>> plans) {
+        if (plans instanceof PlanList) {
+            return ((PlanList) plans).getPlanMatrix();
+        }
+        if (plans.isEmpty() || !(plans.get(0).getValue() instanceof Vector)) {
+            return null;
+        }
+        return PlanMatrix.fromPlans((List<Plan<Vector>>) plans);
+    }
+
+    /**
+     * Returns a view of <code>numPlans</code> consecutive rows of this matrix
+     * starting at row <code>fromPlan</code>. The view shares the storage with
+     * this matrix, which allows the plans of all agents to be kept in one
+     * array while every agent sees only its own rows.
+     *
+     * @param fromPlan first row of the view
+     * @param numPlans number of rows in the view
+     * @return view on the given rows
+     */
+    public abstract PlanMatrix subMatrix(int fromPlan, int numPlans);
+
+    void checkRows(int fromPlan, int numPlans) {
+        if (fromPlan < 0 || numPlans < 0 || fromPlan + numPlans > this.numPlans) {
+            throw new IndexOutOfBoundsException("Rows " + fromPlan + " to " + (fromPlan + numPlans) + " out of " + this.numPlans);
+        }
+    }
+
+    public int getNumPlans() {
+        return numPlans;
+    }
+
+    public int getNumDimensions() {
+        return numDimensions;
+    }
+
+    /**
+     * @param plan - row of the plan, user must ensure that plan < getNumPlans()
+     * @param idx - position in the plan, user must ensure that idx < getNumDimensions()
+     * @return value stored at position idx of the plan
+     */
+    public abstract double getValue(int plan, int idx);
+
+    public double getScore(int plan) {
+        return scores[firstPlan + plan];
+    }
+
+    public void setScore(int plan, double score) {
+        scores[firstPlan + plan] = score;
+        localCosts = null;
+    }
+
+    public int getIndex(int plan) {
+        return indices[firstPlan + plan];
+    }
+
+    public void setIndex(int plan, int index) {
+        indices[firstPlan + plan] = index;
+        localCosts = null;
+    }
+
+    /**
+     * Copies the row of the plan into the given vector: target = plan
+     * @param plan - row of the plan
+     * @param target - user must ensure that target.getNumDimensions() == getNumDimensions()
+     */
+    public abstract void copyRow(int plan, Vector target);
+
+    /**
+     * In-place addition of the row of the plan to the given vector: target += plan
+     * @param plan - row of the plan
+     * @param target - user must ensure that target.getNumDimensions() == getNumDimensions()
+     */
+    public abstract void addRowTo(int plan, Vector target);
+
+    /**
+     * In-place subtraction of the row of the plan from the given vector: target -= plan
+     * @param plan - row of the plan
+     * @param target - user must ensure that target.getNumDimensions() == getNumDimensions()
+     */
+    public abstract void subtractRowFrom(int plan, Vector target);
+
+    /**
+     * Calculates dot product of the row of the plan and the other vector
+     * @param plan - row of the plan
+     * @param other - user must ensure that other.getNumDimensions() == getNumDimensions()
+     * @return (plan)^T * other
+     */
+    public abstract double dotRow(int plan, Vector other);
+
+    /**
+     * @param plan - row of the plan
+     * @return sum of all values of the plan
+     */
+    public abstract double rowSum(int plan);
+
+    /**
+     * @param plan - row of the plan
+     * @return squared Euclidean norm of the plan
+     */
+    public abstract double rowNormSqr(int plan);
+
+    /**
+     * Calculates the squared Euclidean distance between the row of the plan
+     * and the other vector
+     * @param plan - row of the plan
+     * @param other - user must ensure that other.getNumDimensions() == getNumDimensions()
+     * @return |plan - other|^2
+     */
+    public double sqrDistRow(int plan, Vector other) {
+        double sum = 0.0;
+        for (int j = 0; j < numDimensions; j++) {
+            double diff = getValue(plan, j) - other.getValue(j);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sums of all rows. Plans never change, so the sums are
+     * computed once and reused afterwards.
+     *
+     * @return array of row sums; must not be modified
+     */
+    public double[] getRowSums() {
+        double[] sums = rowSums;
+        if (sums == null) {
+            sums = new double[numPlans];
+            for (int i = 0; i < numPlans; i++) {
+                sums[i] = rowSum(i);
+            }
+            rowSums = sums;
+        }
+        return sums;
+    }
+
+    /**
+     * Returns the squared Euclidean norms of all rows. Plans never change, so
+     * the norms are computed once and reused afterwards.
+     *
+     * @return array of squared row norms; must not be modified
+     */
+    public double[] getRowNormSqrs() {
+        double[] norms = rowNormSqrs;
+        if (norms == null) {
+            norms = new double[numPlans];
+            for (int i = 0; i < numPlans; i++) {
+                norms[i] = rowNormSqr(i);
+            }
+            rowNormSqrs = norms;
+        }
+        return norms;
+    }
+
+    /**
+     * Returns the sums of squared deviations of all rows from their means.
+     * Each row is centered before squaring, so the result does not lose
+     * precision when the row norm and the squared mean nearly cancel. Plans
+     * never change, so the values are computed once and reused afterwards.
+     *
+     * @return array of squared row deviations; must not be modified
+     */
+    public double[] getRowM2s() {
+        double[] m2s = rowM2s;
+        if (m2s == null) {
+            double[] sums = getRowSums();
+            m2s = new double[numPlans];
+            for (int i = 0; i < numPlans; i++) {
+                double mean = sums[i] / numDimensions;
+                double m2 = 0.0;
+                for (int j = 0; j < numDimensions; j++) {
+                    double deviation = getValue(i, j) - mean;
+                    m2 += deviation * deviation;
+                }
+                m2s[i] = m2;
+            }
+            rowM2s = m2s;
+        }
+        return m2s;
+    }
+
+    /**
+     * Returns a vantage-point tree over the rows for nearest-neighbour
+     * queries. Plans never change, so the tree is built the first time it is
+     * requested and reused afterwards.
+     *
+     * @return vantage-point tree over all rows of this matrix
+     */
+    public VantagePointTree getVantagePointTree() {
+        VantagePointTree tree = vantagePointTree;
+        if (tree == null) {
+            tree = new VantagePointTree(this);
+            vantagePointTree = tree;
+        }
+        return tree;
+    }
+
+    /**
+     * Matrix-vector product: out[i] = (plan i)^T * x for every row.
+     *
+     * @param x - user must ensure that x.getNumDimensions() == getNumDimensions()
+     * @param out - user must ensure that out.length >= getNumPlans()
+     */
+    public void multiply(Vector x, double[] out) {
+        multiply(x, out, 0, numPlans);
+    }
+
+    /**
+     * Matrix-vector product restricted to the rows <code>from, ..., to-1</code>.
+     *
+     * @param x - user must ensure that x.getNumDimensions() == getNumDimensions()
+     * @param out - user must ensure that out.length >= to
+     * @param from first row, inclusive
+     * @param to last row, exclusive
+     */
+    public void multiply(Vector x, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = dotRow(i, x);
+        }
+    }
+
+    /**
+     * Returns the plan stored in the given row. The plan is created the first
+     * time it is requested and the same object is returned afterwards, so
+     * plans can be compared by identity.
+     *
+     * @param plan - row of the plan
+     * @return plan object holding a copy of the row, its score and index
+     */
+    @SuppressWarnings("unchecked")
+    public Plan<Vector> getPlan(int plan) {
+        if (plans == null) {
+            plans = (Plan<Vector>[]) new Plan<?>[numPlans];
+        }
+        if (plans[plan] == null) {
+            plans[plan] = createPlan(plan);
+        }
+        return plans[plan];
+    }
+
+    private Plan<Vector> createPlan(int plan) {
+        Vector vector = new Vector(numDimensions);
+        copyRow(plan, vector);
+        Plan<Vector> p = new Plan<>(vector);
+        p.setScore(getScore(plan));
+        p.setIndex(getIndex(plan));
+        if (localCosts != null) {
+            p.setLocalCost(localCostFunction, localCosts[plan]);
+        }
+        return p;
+    }
+
+    /**
+     * Computes the local cost of every plan. Plans never change, so the costs
+     * are computed once per local cost function and reused afterwards. Plans
+     * that were not materialized yet are evaluated on temporary copies; the
+     * cost is shared with the local cost cached on the materialized plans.
+     *
+     * @param localCostFunction the local cost function
+     * @return array of local costs, one per row; must not be modified
+     */
+    public double[] getLocalCosts(PlanCostFunction<Vector> localCostFunction) {
+        if (localCosts == null || this.localCostFunction != localCostFunction) {
+            double[] costs = new double[numPlans];
+            for (int i = 0; i < numPlans; i++) {
+                Plan<Vector> plan = (plans != null && plans[i] != null) ? plans[i] : createPlan(i);
+                costs[i] = plan.getLocalCost(localCostFunction);
+            }
+            this.localCosts = costs;
+            this.localCostFunction = localCostFunction;
+        }
+        return localCosts;
+    }
+
+    /**
+     * Returns a read-only list view of the plans of this matrix. Plans are
+     * materialized lazily by {@link #getPlan(int)}.
+     *
+     * @return list of plans backed by this matrix
+     */
+    public List<Plan<Vector>> asPlans() {
+        return new PlanList(this);
+    }
+
+    /**
+     * Read-only list of plans backed by a {@link PlanMatrix}.
+     */
+    public static class PlanList extends AbstractList<Plan<Vector>> implements RandomAccess, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PlanMatrix matrix;
+
+        PlanList(PlanMatrix matrix) {
+            this.matrix = matrix;
+        }
+
+        public PlanMatrix getPlanMatrix() {
+            return matrix;
+        }
+
+        @Override
+        public Plan<Vector> get(int index) {
+            if (index < 0 || index >= matrix.numPlans) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + matrix.numPlans);
+            }
+            return matrix.getPlan(index);
+        }
+
+        @Override
+        public int size() {
+            return matrix.numPlans;
+        }
+
+        /**
+         * Plans are compared by identity, so only plans that were already
+         * materialized can be contained in this list.
+         */
+        @Override
+        public int indexOf(Object o) {
+            if (matrix.plans != null) {
+                for (int i = 0; i < matrix.numPlans; i++) {
+                    if (matrix.plans[i] != null && matrix.plans[i] == o) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Immutable statistics of the values of a plan, i.e. the plan terms of the
+ * closed-form scoring of quadratic cost functions. Plans never change, so these
+ * quantities are computed once per plan by {@link Plan#getStats()} instead of
+ * in every cost evaluation.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class PlanStats {
+
+    private final int numDimensions;
+    private final double sum;
+    private final double normSqr;
+    private final double m2;
+
+    private PlanStats(int numDimensions, double sum, double normSqr, double m2) {
+        this.numDimensions = numDimensions;
+        this.sum = sum;
+        this.normSqr = normSqr;
+        this.m2 = m2;
+    }
+
+    /**
+     * @param vector the values of the plan
+     * @return statistics of the given values
+     */
+    public static PlanStats of(Vector vector) {
+        return new PlanStats(vector.getNumDimensions(), vector.sum(), vector.normSqr(), vector.stats().getM2());
+    }
+
+    public int getNumDimensions() {
+        return numDimensions;
+    }
+
+    /**
+     * @return sum of all values, same as {@link Vector#sum()}
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return squared Euclidean norm, same as {@link Vector#normSqr()}
+     */
+    public double getNormSqr() {
+        return normSqr;
+    }
+
+    /**
+     * @return sum of squared deviations from the mean, computed with
+     * Welford's algorithm
+     */
+    public double getM2() {
+        return m2;
+    }
+}
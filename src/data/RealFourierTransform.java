@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Fast Fourier transform of real signals on primitive arrays. A transform of
+ * size <code>N</code> (a power of two) packs the even and odd samples into one
+ * complex signal of size <code>N/2</code>, transforms it with an iterative
+ * radix-2 FFT and separates the two halves afterwards, so a real signal costs
+ * half of a complex transform.
+ *
+ * The spectrum of a real signal is conjugate-symmetric and is stored as its
+ * first <code>N/2 + 1</code> bins, with real and imaginary parts in separate
+ * arrays. Twiddle factors and the bit-reversal permutation are computed once
+ * per instance, and the scratch buffers are reused by every call, so a
+ * transform allocates nothing. An instance is therefore not thread-safe.
+ *
+ * The forward transform is not normalized; the inverse transform divides by
+ * <code>N</code>, so that <code>inverse(forward(x)) = x</code>.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class RealFourierTransform {
+
+    private final int size;
+    private final int half;
+    private final int[] bitReversal;
+    private final double[] cos;     // cos(2 pi j / half), j < half / 2
+    private final double[] sin;     // sin(2 pi j / half), j < half / 2
+    private final double[] realCos; // cos(2 pi k / size), k <= half
+    private final double[] realSin; // sin(2 pi k / size), k <= half
+    private final double[] scratchRe;
+    private final double[] scratchIm;
+
+    /**
+     * @param size length of the transformed signals; a power of two, at least 2
+     */
+    public RealFourierTransform(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size must be a power of two, at least 2: " + size);
+        }
+        this.size = size;
+        this.half = size / 2;
+
+        int bits = Integer.numberOfTrailingZeros(half);
+        this.bitReversal = new int[half];
+        for (int i = 0; i < half; i++) {
+            bitReversal[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+
+        this.cos = new double[Math.max(1, half / 2)];
+        this.sin = new double[Math.max(1, half / 2)];
+        for (int j = 0; j < half / 2; j++) {
+            cos[j] = Math.cos(2 * Math.PI * j / half);
+            sin[j] = Math.sin(2 * Math.PI * j / half);
+        }
+
+        this.realCos = new double[half + 1];
+        this.realSin = new double[half + 1];
+        for (int k = 0; k <= half; k++) {
+            realCos[k] = Math.cos(2 * Math.PI * k / size);
+            realSin[k] = Math.sin(2 * Math.PI * k / size);
+        }
+
+        this.scratchRe = new double[half];
+        this.scratchIm = new double[half];
+    }
+
+    /**
+     * Returns the transform size needed for the linear (non-circular)
+     * correlation or convolution of two signals of the given length: the
+     * smallest power of two of at least <code>2 * length - 1</code>.
+     *
+     * @param length length of the signals
+     * @return padded transform size
+     */
+    public static int paddedSize(int length) {
+        int size = 2;
+        while (size < 2 * length - 1) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of stored frequency bins, <code>size/2 + 1</code>
+     */
+    public int getNumBins() {
+        return half + 1;
+    }
+
+    /**
+     * Transforms the first <code>length</code> values of the signal, padded
+     * with zeros to the size of the transform.
+     *
+     * @param signal the real signal
+     * @param length number of values taken from the signal, at most the size
+     * @param re output, real parts of the bins; length at least getNumBins()
+     * @param im output, imaginary parts of the bins; length at least getNumBins()
+     */
+    public void forward(double[] signal, int length, double[] re, double[] im) {
+        for (int j = 0; j < half; j++) {
+            scratchRe[j] = 2 * j < length ? signal[2 * j] : 0.0;
+            scratchIm[j] = 2 * j + 1 < length ? signal[2 * j + 1] : 0.0;
+        }
+        transform(scratchRe, scratchIm, false);
+
+        // X_k = E_k + W^k O_k with E_k = (Z_k + conj(Z_{h-k})) / 2 and O_k = (Z_k - conj(Z_{h-k})) / 2i
+        for (int k = 0; k <= half; k++) {
+            int a = k % half;
+            int b = (half - k) % half;
+            double zr = scratchRe[a];
+            double zi = scratchIm[a];
+            double cr = scratchRe[b];
+            double ci = -scratchIm[b];
+
+            double er = (zr + cr) / 2;
+            double ei = (zi + ci) / 2;
+            double or = (zi - ci) / 2;
+            double oi = -(zr - cr) / 2;
+
+            double wr = realCos[k];
+            double wi = -realSin[k];
+            re[k] = er + wr * or - wi * oi;
+            im[k] = ei + wr * oi + wi * or;
+        }
+    }
+
+    /**
+     * Inverse of {@link #forward(double[], int, double[], double[])} for the
+     * spectrum of a real signal.
+     *
+     * @param re real parts of the bins; length at least getNumBins()
+     * @param im imaginary parts of the bins; length at least getNumBins()
+     * @param signal output, the real signal; length at least getSize()
+     */
+    public void inverse(double[] re, double[] im, double[] signal) {
+        // E_k = (X_k + conj(X_{h-k})) / 2, O_k = (X_k - conj(X_{h-k})) W^-k / 2, Z_k = E_k + i O_k
+        for (int k = 0; k < half; k++) {
+            double xr = re[k];
+            double xi = im[k];
+            double cr = re[half - k];
+            double ci = -im[half - k];
+
+            double er = (xr + cr) / 2;
+            double ei = (xi + ci) / 2;
+            double dr = (xr - cr) / 2;
+            double di = (xi - ci) / 2;
+            double wr = realCos[k];
+            double wi = realSin[k];
+            double or = dr * wr - di * wi;
+            double oi = dr * wi + di * wr;
+
+            scratchRe[k] = er - oi;
+            scratchIm[k] = ei + or;
+        }
+        transform(scratchRe, scratchIm, true);
+
+        for (int j = 0; j < half; j++) {
+            signal[2 * j] = scratchRe[j] / half;
+            signal[2 * j + 1] = scratchIm[j] / half;
+        }
+    }
+
+    /**
+     * In-place iterative radix-2 complex FFT of size <code>half</code>,
+     * without normalization.
+     */
+    private void transform(double[] re, double[] im, boolean inverse) {
+        for (int i = 0; i < half; i++) {
+            int j = bitReversal[i];
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        for (int length = 2; length <= half; length <<= 1) {
+            int halfLength = length >> 1;
+            int step = half / length;
+            for (int k = 0; k < halfLength; k++) {
+                double wr = cos[k * step];
+                double wi = inverse ? sin[k * step] : -sin[k * step];
+                for (int a = k; a < half; a += length) {
+                    int b = a + halfLength;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+}
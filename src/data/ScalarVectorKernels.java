@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Sequential scalar kernels. Every reduction sums in index order.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class ScalarVectorKernels extends VectorKernels {
+
+    @Override
+    public double sum(double[] a) {
+        double sum = 0.0;
+        for (double val : a) {
+            sum += val;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    @Override
+    public double normSqr(double[] a) {
+        double sum = 0.0;
+        for (double val : a) {
+            sum += val * val;
+        }
+        return sum;
+    }
+
+    @Override
+    public double sumOfSquaredDifferences(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            double diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double variance(double[] a) {
+        double average = sum(a) / a.length;
+        double sumSquare = 0.0;
+        for (double val : a) {
+            double dev = val - average;
+            sumSquare += dev * dev;
+        }
+        return sumSquare / a.length;
+    }
+
+    @Override
+    public double varianceOfSum(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] + b[i];
+        }
+        double average = sum / a.length;
+        double sumSquare = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            double dev = a[i] + b[i] - average;
+            sumSquare += dev * dev;
+        }
+        return sumSquare / a.length;
+    }
+
+    @Override
+    public double dotOfDifference(double[] a, double[] b, double[] c) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += (a[i] - b[i]) * c[i];
+        }
+        return dot;
+    }
+}
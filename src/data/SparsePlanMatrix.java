@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plan matrix that stores only the non-zero values, in compressed sparse row
+ * (CSR) format: the non-zeros of row <code>i</code> are found at positions
+ * <code>rowPointers[i], ..., rowPointers[i+1]-1</code> of the
+ * <code>columns</code> and <code>values</code> arrays. All row kernels and the
+ * matrix-vector product scale with the number of non-zeros, which pays off for
+ * plans with a few active time slots in a long horizon.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class SparsePlanMatrix extends PlanMatrix {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] rowPointers;
+    private final int[] columns;
+    private final double[] values;
+
+    private SparsePlanMatrix(int[] rowPointers, int[] columns, double[] values, double[] scores, int[] indices,
+            int firstPlan, int numPlans, int numDimensions) {
+        super(scores, indices, firstPlan, numPlans, numDimensions);
+        this.rowPointers = rowPointers;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Copies the non-zero values of the given plans into a new matrix. Scores
+     * and indices are copied as they are.
+     *
+     * @param plans list of plans, user must ensure that they are of equal size
+     * @return a new matrix holding the given plans
+     */
+    public static SparsePlanMatrix fromPlans(List<? extends Plan<Vector>> plans) {
+        int numPlans = plans.size();
+        int numDimensions = plans.isEmpty() ? 0 : plans.get(0).getValue().getNumDimensions();
+        int[] rowPointers = new int[numPlans + 1];
+        for (int i = 0; i < numPlans; i++) {
+            rowPointers[i + 1] = rowPointers[i] + countNonZeros(plans.get(i).getValue());
+        }
+        int[] columns = new int[rowPointers[numPlans]];
+        double[] values = new double[rowPointers[numPlans]];
+        double[] scores = new double[numPlans];
+        int[] indices = new int[numPlans];
+        for (int i = 0; i < numPlans; i++) {
+            Plan<Vector> plan = plans.get(i);
+            Vector row = plan.getValue();
+            int k = rowPointers[i];
+            for (int j = 0; j < numDimensions; j++) {
+                double val = row.getValue(j);
+                if (val != 0) {
+                    columns[k] = j;
+                    values[k] = val;
+                    k++;
+                }
+            }
+            scores[i] = plan.getScore();
+            indices[i] = plan.getIndex();
+        }
+        return new SparsePlanMatrix(rowPointers, columns, values, scores, indices, 0, numPlans, numDimensions);
+    }
+
+    @Override
+    public SparsePlanMatrix subMatrix(int fromPlan, int numPlans) {
+        checkRows(fromPlan, numPlans);
+        return new SparsePlanMatrix(rowPointers, columns, values, scores, indices, firstPlan + fromPlan, numPlans, numDimensions);
+    }
+
+    private int rowStart(int plan) {
+        return rowPointers[firstPlan + plan];
+    }
+
+    private int rowEnd(int plan) {
+        return rowPointers[firstPlan + plan + 1];
+    }
+
+    /**
+     * @param vector dense values
+     * @return number of non-zero values
+     */
+    static int countNonZeros(Vector vector) {
+        int nnz = 0;
+        for (int i = 0; i < vector.getNumDimensions(); i++) {
+            if (vector.getValue(i) != 0) {
+                nnz++;
+            }
+        }
+        return nnz;
+    }
+
+    /**
+     * @return number of stored non-zero values of all plans of this matrix
+     */
+    public int getNumNonZeros() {
+        return rowStart(numPlans) - rowStart(0);
+    }
+
+    @Override
+    public double getValue(int plan, int idx) {
+        int k = Arrays.binarySearch(columns, rowStart(plan), rowEnd(plan), idx);
+        return k >= 0 ? values[k] : 0;
+    }
+
+    @Override
+    public void copyRow(int plan, Vector target) {
+        target.reset();
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            target.setValue(columns[k], values[k]);
+        }
+    }
+
+    @Override
+    public void addRowTo(int plan, Vector target) {
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            int col = columns[k];
+            target.setValue(col, target.getValue(col) + values[k]);
+        }
+    }
+
+    @Override
+    public void subtractRowFrom(int plan, Vector target) {
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            int col = columns[k];
+            target.setValue(col, target.getValue(col) - values[k]);
+        }
+    }
+
+    @Override
+    public double dotRow(int plan, Vector other) {
+        double dot = 0;
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            dot += values[k] * other.getValue(columns[k]);
+        }
+        return dot;
+    }
+
+    @Override
+    public double rowSum(int plan) {
+        double sum = 0;
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            sum += values[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public double rowNormSqr(int plan) {
+        double sum = 0;
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            sum += values[k] * values[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Dimensions without a stored value contribute the square of the other
+     * vector, so no cancellation between norms and dot product occurs.
+     */
+    @Override
+    public double sqrDistRow(int plan, Vector other) {
+        double sum = 0;
+        int j = 0;
+        for (int k = rowStart(plan), end = rowEnd(plan); k < end; k++) {
+            for (int col = columns[k]; j < col; j++) {
+                double val = other.getValue(j);
+                sum += val * val;
+            }
+            double diff = values[k] - other.getValue(j);
+            sum += diff * diff;
+            j++;
+        }
+        for (; j < numDimensions; j++) {
+            double val = other.getValue(j);
+            sum += val * val;
+        }
+        return sum;
+    }
+}
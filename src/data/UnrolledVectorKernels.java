@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Scalar kernels whose reductions use four independent accumulators. The
+ * additions of different accumulators do not depend on each other, so the
+ * CPU can execute them in parallel. Rounding differs from the sequential
+ * kernels in the last bits.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class UnrolledVectorKernels extends VectorKernels {
+
+    @Override
+    public double sum(double[] a) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = a.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += a[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double dot(double[] a, double[] b) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = a.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double normSqr(double[] a) {
+        return dot(a, a);
+    }
+
+    @Override
+    public double sumOfSquaredDifferences(double[] a, double[] b) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = a.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            double d0 = a[i] - b[i];
+            double d1 = a[i + 1] - b[i + 1];
+            double d2 = a[i + 2] - b[i + 2];
+            double d3 = a[i + 3] - b[i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < n; i++) {
+            double d = a[i] - b[i];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public double variance(double[] a) {
+        int n = a.length;
+        double average = sum(a) / n;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            double d0 = a[i] - average;
+            double d1 = a[i + 1] - average;
+            double d2 = a[i + 2] - average;
+            double d3 = a[i + 3] - average;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < n; i++) {
+            double d = a[i] - average;
+            s0 += d * d;
+        }
+        return ((s0 + s1) + (s2 + s3)) / n;
+    }
+
+    @Override
+    public double varianceOfSum(double[] a, double[] b) {
+        int n = a.length;
+        double average = (sum(a) + sum(b)) / n;
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            double d0 = a[i] + b[i] - average;
+            double d1 = a[i + 1] + b[i + 1] - average;
+            double d2 = a[i + 2] + b[i + 2] - average;
+            double d3 = a[i + 3] + b[i + 3] - average;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < n; i++) {
+            double d = a[i] + b[i] - average;
+            s0 += d * d;
+        }
+        return ((s0 + s1) + (s2 + s3)) / n;
+    }
+
+    @Override
+    public double dotOfDifference(double[] a, double[] b, double[] c) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = a.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += (a[i] - b[i]) * c[i];
+            s1 += (a[i + 1] - b[i + 1]) * c[i + 1];
+            s2 += (a[i + 2] - b[i + 2]) * c[i + 2];
+            s3 += (a[i + 3] - b[i + 3]) * c[i + 3];
+        }
+        for (; i < n; i++) {
+            s0 += (a[i] - b[i]) * c[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Vantage-point tree over the rows of a plan matrix for nearest-neighbour
+ * queries in Euclidean distance. Every inner node picks one row as vantage
+ * point and splits the remaining rows at the median distance to it; a query
+ * descends into the side of the query first and visits the other side only if
+ * it may contain a closer row. Small ranges are scanned linearly.
+ *
+ * The tree stores only a permutation of the rows and one radius per node, the
+ * plans themselves stay in the matrix.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class VantagePointTree {
+
+    private static final int LEAF_SIZE = 8;
+    private static final double TIE_TOLERANCE = 1e-9; // relative tolerance of squared distances reported as ties
+
+    private final PlanMatrix matrix;
+    private final int[] rows;       // rows in tree order, every node is a range of it
+    private final double[] radii;   // median distance to the vantage point, stored at the position of the vantage point
+
+    /**
+     * Builds the tree over all rows of the matrix. The vantage points are
+     * chosen with a fixed seed, so the tree is the same in every run.
+     *
+     * @param matrix the plans to index
+     */
+    public VantagePointTree(PlanMatrix matrix) {
+        this.matrix = matrix;
+        int numPlans = matrix.getNumPlans();
+        this.rows = new int[numPlans];
+        for (int i = 0; i < numPlans; i++) {
+            rows[i] = i;
+        }
+        this.radii = new double[numPlans];
+        build(0, numPlans, new Vector(matrix.getNumDimensions()), new double[numPlans], new Random(0));
+    }
+
+    private void build(int from, int to, Vector vantagePoint, double[] distances, Random random) {
+        if (to - from <= LEAF_SIZE) {
+            return;
+        }
+        swap(distances, from, from + random.nextInt(to - from));
+        matrix.copyRow(rows[from], vantagePoint);
+        for (int k = from + 1; k < to; k++) {
+            distances[k] = Math.sqrt(matrix.sqrDistRow(rows[k], vantagePoint));
+        }
+        int median = (from + 1 + to) >>> 1;
+        select(distances, from + 1, to, median);
+        radii[from] = distances[median];
+
+        build(from + 1, median, vantagePoint, distances, random);
+        build(median, to, vantagePoint, distances, random);
+    }
+
+    /**
+     * Partially sorts the range <code>[from, to)</code> by distance, so that
+     * all positions before <code>k</code> are at most and all positions after
+     * <code>k</code> are at least as distant as position <code>k</code>.
+     */
+    private void select(double[] distances, int from, int to, int k) {
+        int left = from;
+        int right = to - 1;
+        while (left < right) {
+            double pivot = distances[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (distances[i] < pivot) {
+                    i++;
+                }
+                while (distances[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(distances, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(double[] distances, int i, int j) {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        double dist = distances[i];
+        distances[i] = distances[j];
+        distances[j] = dist;
+    }
+
+    /**
+     * Finds the rows nearest to the query. With <code>epsilon = 0</code> the
+     * search is exact and returns all rows whose squared distance equals the
+     * minimum up to a relative tolerance of 1e-9, so that ties can be broken
+     * by the caller. With <code>epsilon &gt; 0</code> subtrees are pruned as
+     * if the current best distance were <code>1 + epsilon</code> times
+     * smaller; the returned rows are then within a factor of
+     * <code>1 + epsilon</code> of the nearest distance, but fewer rows are
+     * visited.
+     *
+     * @param query - user must ensure that query.getNumDimensions() == getNumDimensions() of the matrix
+     * @param epsilon approximation factor, non-negative
+     * @return the nearest rows and the number of rows visited
+     */
+    public Neighbours nearest(Vector query, double epsilon) {
+        Neighbours neighbours = new Neighbours(query, 1.0 / (1.0 + epsilon));
+        search(0, rows.length, neighbours);
+        neighbours.finish();
+        return neighbours;
+    }
+
+    private void search(int from, int to, Neighbours neighbours) {
+        if (to - from <= LEAF_SIZE) {
+            for (int k = from; k < to; k++) {
+                neighbours.visit(rows[k]);
+            }
+            return;
+        }
+        double dist = neighbours.visit(rows[from]);
+        double radius = radii[from];
+        int median = (from + 1 + to) >>> 1;
+        if (dist < radius) {
+            search(from + 1, median, neighbours);
+            if (dist + neighbours.pruningRadius() >= radius) {
+                search(median, to, neighbours);
+            }
+        } else {
+            search(median, to, neighbours);
+            if (dist - neighbours.pruningRadius() <= radius) {
+                search(from + 1, median, neighbours);
+            }
+        }
+    }
+
+    /**
+     * Result of a nearest-neighbour query.
+     */
+    public class Neighbours {
+
+        private final Vector query;
+        private final double shrink;
+        private double bestSqrDist = Double.POSITIVE_INFINITY;
+        private int[] nearest = new int[4];
+        private double[] sqrDists = new double[4];
+        private int numNearest;
+        private int numVisited;
+
+        private Neighbours(Vector query, double shrink) {
+            this.query = query;
+            this.shrink = shrink;
+        }
+
+        private double visit(int row) {
+            double sqrDist = matrix.sqrDistRow(row, query);
+            numVisited++;
+            if (sqrDist < bestSqrDist) {
+                bestSqrDist = sqrDist;
+                int kept = 0;
+                for (int k = 0; k < numNearest; k++) {
+                    if (sqrDists[k] <= bound()) {
+                        nearest[kept] = nearest[k];
+                        sqrDists[kept] = sqrDists[k];
+                        kept++;
+                    }
+                }
+                numNearest = kept;
+            }
+            if (sqrDist <= bound()) {
+                if (numNearest == nearest.length) {
+                    nearest = Arrays.copyOf(nearest, 2 * numNearest);
+                    sqrDists = Arrays.copyOf(sqrDists, 2 * numNearest);
+                }
+                nearest[numNearest] = row;
+                sqrDists[numNearest] = sqrDist;
+                numNearest++;
+            }
+            return Math.sqrt(sqrDist);
+        }
+
+        private double bound() {
+            return bestSqrDist * (1 + TIE_TOLERANCE);
+        }
+
+        private double pruningRadius() {
+            return Math.sqrt(bound()) * shrink;
+        }
+
+        private void finish() {
+            nearest = Arrays.copyOf(nearest, numNearest);
+            Arrays.sort(nearest);
+        }
+
+        /**
+         * @return the nearest rows in ascending order
+         */
+        public int[] getRows() {
+            return nearest;
+        }
+
+        /**
+         * @return number of rows whose distance to the query was computed
+         */
+        public int getNumVisited() {
+            return numVisited;
+        }
+    }
+}
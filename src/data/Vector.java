@@ -38,6 +38,8 @@ import config.Configuration;
  */
 public class Vector implements DataType<Vector> {
 
+    private static final VectorKernels KERNELS = VectorKernels.get();
+
     private double[] values;
 
     /**
@@ -81,11 +83,7 @@ public class Vector implements DataType<Vector> {
      * @return sum of all values in vector
      */
     public double sum() {
-        double sum = 0.0;
-        for (double val : values) {
-            sum += val;
-        }
-        return sum;
+        return KERNELS.sum(values);
     }
 
     public double avg() {
@@ -98,11 +96,26 @@ public class Vector implements DataType<Vector> {
      * @return
      */
     public double dot(Vector other) {
-        double dot = 0;
-        for (int i = 0; i < values.length; i++) {
-            dot += values[i] * other.values[i];
-        }
-        return dot;
+        return KERNELS.dot(values, other.values);
+    }
+
+    /**
+     * Computes count, sum, mean, sum of squared deviations, minimum and maximum
+     * of the values in a single pass.
+     * @return statistics of this vector
+     */
+    public VectorStats stats() {
+        return VectorStats.of(values);
+    }
+
+    /**
+     * Computes statistics of this vector and of <code>other</code> together with
+     * their co-moment in a single pass.
+     * @param other - Vector object, user must ensure that other.getNumDimensions() == this.getNumDimensions()
+     * @return statistics of both vectors
+     */
+    public VectorCrossStats crossStats(Vector other) {
+        return VectorCrossStats.of(this, other);
     }
 
     /**
@@ -140,12 +153,7 @@ public class Vector implements DataType<Vector> {
      * @return double value representing variance
      */
     public double variance() {
-        double average = this.avg();
-        double sumSquare = 0.0;
-        for (double val : values) {
-            sumSquare += Math.pow((val - average), 2.0);
-        }
-        return sumSquare / values.length;
+        return KERNELS.variance(values);
     }
 
     /**
@@ -158,7 +166,8 @@ public class Vector implements DataType<Vector> {
         double average = avg();
         double sumSquare = 0.0;
         for (double val : values) {
-            sumSquare += Math.pow((val - average), 2.0);
+            double dev = val - average;
+            sumSquare += dev * dev;
         }
         double variance = sumSquare / (values.length - 1);
         double stDev = Math.sqrt(variance);
@@ -222,11 +231,7 @@ public class Vector implements DataType<Vector> {
      * @return
      */
     public double normSqr() {
-        double sum = 0.0;
-        for (double state : values) {
-            sum += state * state;
-        }
-        return sum;
+        return KERNELS.normSqr(values);
     }
 
     /**
@@ -267,13 +272,8 @@ public class Vector implements DataType<Vector> {
      * @return double value representing root mean squared error
      */
     public double rootMeanSquareError(Vector other) {
-        double[] vectorX = values;
-        double[] vectorY = other.values;
-        double squaredError = 0;
-        for (int i = 0; i < vectorX.length; i++) {
-            squaredError += Math.pow(vectorX[i] - vectorY[i], 2);
-        }
-        double meanSquaredError = squaredError / vectorX.length;
+        double squaredError = KERNELS.sumOfSquaredDifferences(values, other.values);
+        double meanSquaredError = squaredError / values.length;
         double rootMeanSquaredError = Math.sqrt(meanSquaredError);
         return rootMeanSquaredError;
     }
@@ -298,9 +298,7 @@ public class Vector implements DataType<Vector> {
 
     @Override
     public void add(Vector other) {
-        for (int i = 0; i < values.length; i++) {
-            values[i] += other.values[i];
-        }
+        KERNELS.add(values, other.values);
     }
 
     /**
@@ -315,9 +313,7 @@ public class Vector implements DataType<Vector> {
 
     @Override
     public void subtract(Vector other) {
-        for (int i = 0; i < values.length; i++) {
-            values[i] -= other.values[i];
-        }
+        KERNELS.subtract(values, other.values);
     }
 
     /**
@@ -370,6 +366,56 @@ public class Vector implements DataType<Vector> {
         }
     }
 
+    /**
+     * In-place variant of {@link #standard_normalization}: x_i := (x_i - x_mean)/(x_std + 1e-10)
+     */
+    public void standardNormalize() {
+        double mean = avg();
+        double std = std();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (values[i] - mean) / (std + 1e-10);
+        }
+    }
+
+    /**
+     * In-place variant of {@link #min_max_normalization}: x_i := (x_i - x_min)/(x_max - x_min)
+     */
+    public void minMaxNormalize() {
+        double min = min();
+        double max = max();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (values[i] - min) / (max - min);
+        }
+    }
+
+    /**
+     * In-place variant of {@link #unit_length_normalization}: x_i := x_i/(||x|| + 1e-10)
+     */
+    public void unitLengthNormalize() {
+        double norm = Math.sqrt(normSqr());
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i] / (norm + 1e-10);
+        }
+    }
+
+    /**
+     * Applies <code>normalizer</code> to this vector in place. The normalizations
+     * of this class are applied without allocation, any other normalizer is
+     * applied to a copy whose values are written back.
+     * @param normalizer normalization to apply
+     */
+    public void normalize(UnaryOperator<Vector> normalizer) {
+        if (normalizer == standard_normalization) {
+            standardNormalize();
+        } else if (normalizer == min_max_normalization) {
+            minMaxNormalize();
+        } else if (normalizer == unit_length_normalization) {
+            unitLengthNormalize();
+        } else if (normalizer != no_normalization) {
+            set(normalizer.apply(this));
+        }
+    }
+
     /**
      * Computes element-wise mean of vectors from the list by using this.add(vectors) and then this.multiply(1/vectors.size())
      * @param vectors - user must ensure that all vectors in the list are of equal size
@@ -410,10 +456,108 @@ public class Vector implements DataType<Vector> {
      * @return
      */
     public static double residualSumOfSquares(Vector v, Vector u) {
-    	Vector other = v.cloneThis();
-    	other.subtract(u);
-    	other.pow(2);
-    	return other.sum();
+        return KERNELS.sumOfSquaredDifferences(v.values, u.values);
+    }
+
+    /**
+     * Tells whether {@link #normalizedResidualSumOfSquares} supports <code>normalizer</code>,
+     * i.e. whether it is one of the normalizations of this class. These all map
+     * x_i to (x_i - shift)/scale with shift and scale derived from the statistics of x.
+     * @param normalizer normalization
+     * @return <code>true</code> if the normalization is one of this class
+     */
+    public static boolean isAffineNormalization(UnaryOperator<Vector> normalizer) {
+        return normalizer == standard_normalization
+                || normalizer == min_max_normalization
+                || normalizer == unit_length_normalization
+                || normalizer == no_normalization;
+    }
+
+    /**
+     * Computes residual sum of squares between <code>normalizer.apply(a + b)</code>
+     * and <code>goal</code> without creating the sum or its normalization.
+     * A first pass gathers the statistics of the response that determine the
+     * shift and scale of the normalization, and a second pass accumulates
+     * SUM{ ((x_i - shift)/scale - g_i)^2 } directly, so the result is as
+     * accurate as normalizing first and calling {@link #residualSumOfSquares}.
+     * @param normalizer normalization for which {@link #isAffineNormalization} holds
+     * @param a the response, or its first summand
+     * @param b the second summand of the response, or <code>null</code>
+     * @param goal the normalized goal signal, user must ensure that all vectors are of the same dimensionality
+     * @return residual sum of squares of the normalized response and the goal
+     */
+    public static double normalizedResidualSumOfSquares(UnaryOperator<Vector> normalizer, Vector a, Vector b, Vector goal) {
+        double[] x1 = a.values;
+        double[] x2 = b == null ? null : b.values;
+        double[] y = goal.values;
+        int n = x1.length;
+
+        double k = x2 == null ? x1[0] : x1[0] + x2[0];
+        double sum = 0.0, sumSquare = 0.0, sd = 0.0, sdd = 0.0;
+        double min = Double.MAX_VALUE;          // same initial values as min() and max()
+        double max = Double.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            double val = x2 == null ? x1[i] : x1[i] + x2[i];
+            double d = val - k;
+            sum += val;
+            sumSquare += val * val;
+            sd += d;
+            sdd += d * d;
+            if (val < min) {
+                min = val;
+            }
+            if (val > max) {
+                max = val;
+            }
+        }
+
+        double shift;
+        double scale;
+        if (normalizer == standard_normalization) {
+            shift = sum / n;
+            scale = Math.sqrt(Math.max(0.0, sdd - sd * sd / n) / n) + 1e-10;
+        } else if (normalizer == min_max_normalization) {
+            shift = min;
+            scale = max - min;
+        } else if (normalizer == unit_length_normalization) {
+            shift = 0.0;
+            scale = Math.sqrt(sumSquare) + 1e-10;
+        } else if (normalizer == no_normalization) {
+            shift = 0.0;
+            scale = 1.0;
+        } else {
+            throw new IllegalArgumentException("Unsupported normalization: " + normalizer);
+        }
+
+        double rss = 0.0;
+        for (int i = 0; i < n; i++) {
+            double val = x2 == null ? x1[i] : x1[i] + x2[i];
+            double diff = (val - shift) / scale - y[i];
+            rss += diff * diff;
+        }
+        return rss;
+    }
+
+    /**
+     * Computes variance of the sum <code>v + u</code> without allocating it.
+     * Equivalent to creating the sum and calling {@link #variance()}.
+     * @param v vector 1
+     * @param u vector 2, user must ensure that it has the same dimensionality as <code>v</code>
+     * @return variance of <code>v + u</code>
+     */
+    public static double varianceOfSum(Vector v, Vector u) {
+        return KERNELS.varianceOfSum(v.values, u.values);
+    }
+
+    /**
+     * Computes dot product <code>(v - u)^T * w</code> without allocating the difference.
+     * @param v vector 1
+     * @param u vector 2
+     * @param w vector 3, user must ensure that all three are of the same dimensionality
+     * @return dot product of <code>v - u</code> and <code>w</code>
+     */
+    public static double dotOfDifference(Vector v, Vector u, Vector w) {
+        return KERNELS.dotOfDifference(v.values, u.values, w.values);
     }
 
     /**
@@ -659,11 +803,8 @@ public class Vector implements DataType<Vector> {
      */    
     public static UnaryOperator<Vector> standard_normalization = (Vector v) -> {
     	Vector normalized = new Vector(v.getNumDimensions());
-    	double mean = v.avg();
-    	double std = v.std();
-    	for(int i = 0; i < v.values.length; i++) {
-    		normalized.setValue(i, (v.values[i]-mean)/(std + 1e-10));
-    	}
+    	normalized.set(v);
+    	normalized.standardNormalize();
     	return normalized;
     };
     
@@ -677,11 +818,8 @@ public class Vector implements DataType<Vector> {
      */
     public static UnaryOperator<Vector> min_max_normalization = (Vector v) -> {
     	Vector normalized = new Vector(v.getNumDimensions());
-    	double min = v.min();
-    	double max = v.max();
-    	for(int i = 0; i < v.values.length; i++) {
-    		normalized.setValue(i, (v.values[i]-min)/(max-min));
-    	}
+    	normalized.set(v);
+    	normalized.minMaxNormalize();
     	return normalized;
     };
     
@@ -695,10 +833,8 @@ public class Vector implements DataType<Vector> {
      */
     public static UnaryOperator<Vector> unit_length_normalization = (Vector v) -> {
     	Vector normalized = new Vector(v.getNumDimensions());
-    	double norm = Math.sqrt(v.normSqr());
-    	for(int i = 0; i < v.values.length; i++) {
-    		normalized.setValue(i, v.values[i]/(norm + 1e-10));
-    	}
+    	normalized.set(v);
+    	normalized.unitLengthNormalize();
     	return normalized;
     };
     
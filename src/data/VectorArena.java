@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Pool of reusable values for temporary results of one agent. A value is
+ * borrowed with {@link #borrow()} or {@link #borrowCopy(DataType)} and stays
+ * valid until the next {@link #reset()}, after which the same objects are
+ * handed out again. After the first iteration no new values are allocated.
+ *
+ * Ownership rules:
+ * <ul>
+ * <li>The arena owns all borrowed values. They are reset at the beginning of
+ * every iteration of the agent, so the borrower must not keep them beyond the
+ * current iteration.</li>
+ * <li>Borrowed values must never escape the agent: they must not become
+ * payload of a message, be stored in a field that outlives the iteration, or
+ * be returned from a public getter. Values that escape are copied with
+ * {@link DataType#cloneThis()} instead.</li>
+ * <li>The arena is not thread-safe and belongs to a single agent.</li>
+ * </ul>
+ *
+ * @author Peter P. & Jovan N.
+ * @param <V> the type of the values
+ */
+public class VectorArena<V extends DataType<V>> {
+
+    private final Supplier<V> factory;
+    private final List<V> values = new ArrayList<>();
+    private int numBorrowed;
+
+    /**
+     * @param factory creates a new value when all values of the arena are borrowed
+     */
+    public VectorArena(Supplier<V> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Borrows a value whose content is unspecified.
+     * @return a value owned by the arena, valid until the next reset
+     */
+    public V borrow() {
+        if (numBorrowed == values.size()) {
+            values.add(factory.get());
+        }
+        return values.get(numBorrowed++);
+    }
+
+    /**
+     * Borrows a value and sets it to the given value.
+     * @param source the value to copy
+     * @return a copy of <code>source</code> owned by the arena, valid until the next reset
+     */
+    public V borrowCopy(V source) {
+        V value = borrow();
+        value.set(source);
+        return value;
+    }
+
+    /**
+     * Makes all borrowed values available again. Values borrowed before must
+     * not be used afterwards.
+     */
+    public void reset() {
+        numBorrowed = 0;
+    }
+
+    /**
+     * @return number of values currently borrowed
+     */
+    public int getNumBorrowed() {
+        return numBorrowed;
+    }
+
+    /**
+     * @return number of values allocated by the arena so far
+     */
+    public int getCapacity() {
+        return values.size();
+    }
+}
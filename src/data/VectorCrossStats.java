@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Statistics of two vectors of equal length together with their co-moment
+ * <code>C = SUM{ (x_i - mean_x) * (y_i - mean_y) }</code>, computed in a
+ * single pass with the bivariate form of Welford's algorithm.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class VectorCrossStats {
+
+    private final VectorStats x;
+    private final VectorStats y;
+    private final double comoment;
+
+    VectorCrossStats(VectorStats x, VectorStats y, double comoment) {
+        this.x = x;
+        this.y = y;
+        this.comoment = comoment;
+    }
+
+    /**
+     * @param x the first vector
+     * @param y the second vector, of the same dimensionality as <code>x</code>
+     * @return statistics of both vectors and their co-moment
+     */
+    public static VectorCrossStats of(Vector x, Vector y) {
+        return of(x, null, y);
+    }
+
+    /**
+     * Cross statistics of <code>a + b</code> and <code>other</code>, without creating the sum.
+     * @param a vector 1
+     * @param b vector 2
+     * @param other vector 3, user must ensure that all three are of the same dimensionality
+     * @return statistics of <code>a + b</code>, of <code>other</code> and their co-moment
+     */
+    public static VectorCrossStats ofSum(Vector a, Vector b, Vector other) {
+        return of(a, b, other);
+    }
+
+    /**
+     * @param x1 first summand of the first vector
+     * @param x2 second summand of the first vector, or <code>null</code>
+     * @param y the second vector
+     */
+    private static VectorCrossStats of(Vector x1, Vector x2, Vector y) {
+        int n = 0;
+        double sumX = 0.0, meanX = 0.0, m2X = 0.0;
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double sumY = 0.0, meanY = 0.0, m2Y = 0.0;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        double comoment = 0.0;
+        for (int i = 0; i < x1.getNumDimensions(); i++) {
+            double valX = x2 == null ? x1.getValue(i) : x1.getValue(i) + x2.getValue(i);
+            double valY = y.getValue(i);
+            n++;
+            sumX += valX;
+            sumY += valY;
+            double deltaX = valX - meanX;
+            double deltaY = valY - meanY;
+            meanX += deltaX / n;
+            meanY += deltaY / n;
+            m2X += deltaX * (valX - meanX);
+            m2Y += deltaY * (valY - meanY);
+            comoment += deltaX * (valY - meanY);
+            minX = Math.min(minX, valX);
+            maxX = Math.max(maxX, valX);
+            minY = Math.min(minY, valY);
+            maxY = Math.max(maxY, valY);
+        }
+        return new VectorCrossStats(new VectorStats(n, sumX, meanX, m2X, minX, maxX),
+                new VectorStats(n, sumY, meanY, m2Y, minY, maxY), comoment);
+    }
+
+    /**
+     * @return statistics of the first vector
+     */
+    public VectorStats getX() {
+        return x;
+    }
+
+    /**
+     * @return statistics of the second vector
+     */
+    public VectorStats getY() {
+        return y;
+    }
+
+    /**
+     * @return co-moment: SUM{ (x_i - mean_x) * (y_i - mean_y) }
+     */
+    public double getComoment() {
+        return comoment;
+    }
+
+    /**
+     * @return population covariance: C / count
+     */
+    public double covariance() {
+        return comoment / x.getCount();
+    }
+
+    /**
+     * @return Pearson correlation coefficient: C / sqrt(M2_x * M2_y)
+     */
+    public double correlation() {
+        return comoment / Math.sqrt(x.getM2() * y.getM2());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Numerical kernels used by {@link Vector}. The backend is chosen once at
+ * class loading time via the system property <code>epos.vectorKernels</code>:
+ * <ul>
+ * <li><code>scalar</code>: plain sequential loops. Reductions sum in index
+ * order, so results are bit-identical across runs and platforms.</li>
+ * <li><code>unrolled</code>: reductions with four independent accumulators,
+ * which lets the CPU overlap the additions. Results may differ from the
+ * scalar backend in the last bits.</li>
+ * <li>the fully qualified name of a subclass with a public no-argument
+ * constructor, e.g. a SIMD backend compiled against
+ * <code>jdk.incubator.vector</code> and placed on the classpath. If it cannot
+ * be loaded, the scalar backend is used.</li>
+ * </ul>
+ * Without the property, the SIMD backend {@value #SIMD_KERNELS} is used if it
+ * is on the classpath and can be loaded, and the scalar backend otherwise.
+ * Element-wise kernels such as {@link #add} are auto-vectorized by the JIT
+ * compiler in every backend.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public abstract class VectorKernels {
+
+    public static final String PROPERTY = "epos.vectorKernels";
+
+    public static final String SIMD_KERNELS = "data.SimdVectorKernels";
+
+    private static final VectorKernels INSTANCE = load(System.getProperty(PROPERTY));
+
+    /**
+     * @return the kernels selected for this JVM
+     */
+    public static VectorKernels get() {
+        return INSTANCE;
+    }
+
+    private static VectorKernels load(String name) {
+        if (name == null) {
+            try {
+                return instantiate(SIMD_KERNELS);
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+                return new ScalarVectorKernels();
+            }
+        }
+        switch (name) {
+            case "scalar":
+                return new ScalarVectorKernels();
+            case "unrolled":
+                return new UnrolledVectorKernels();
+            default:
+                try {
+                    return instantiate(name);
+                } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+                    Logger.getLogger(VectorKernels.class.getName()).log(Level.WARNING,
+                            "Vector kernels " + name + " not available, falling back to scalar kernels", e);
+                    return new ScalarVectorKernels();
+                }
+        }
+    }
+
+    private static VectorKernels instantiate(String name) throws ReflectiveOperationException {
+        return (VectorKernels) Class.forName(name).getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * target[i] += other[i]
+     */
+    public void add(double[] target, double[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += other[i];
+        }
+    }
+
+    /**
+     * target[i] -= other[i]
+     */
+    public void subtract(double[] target, double[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] -= other[i];
+        }
+    }
+
+    /**
+     * @return SUM{ a[i] }
+     */
+    public abstract double sum(double[] a);
+
+    /**
+     * @return SUM{ a[i] * b[i] }
+     */
+    public abstract double dot(double[] a, double[] b);
+
+    /**
+     * @return SUM{ a[i] * a[i] }
+     */
+    public abstract double normSqr(double[] a);
+
+    /**
+     * @return SUM{ (a[i] - b[i])^2 }
+     */
+    public abstract double sumOfSquaredDifferences(double[] a, double[] b);
+
+    /**
+     * @return population variance of a: SUM{ (a[i] - avg(a))^2 } / n
+     */
+    public abstract double variance(double[] a);
+
+    /**
+     * Fused kernel that does not materialize a + b.
+     * @return population variance of the sum a + b
+     */
+    public abstract double varianceOfSum(double[] a, double[] b);
+
+    /**
+     * Fused kernel that does not materialize a - b.
+     * @return SUM{ (a[i] - b[i]) * c[i] }
+     */
+    public abstract double dotOfDifference(double[] a, double[] b, double[] c);
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package data;
+
+/**
+ * Summary statistics of the values of a vector, computed in a single pass
+ * with Welford's algorithm. Welford's update of the mean and of the sum of
+ * squared deviations <code>M2</code> avoids the cancellation of the textbook
+ * formula <code>E[x^2] - E[x]^2</code>.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class VectorStats {
+
+    private final int count;
+    private final double sum;
+    private final double mean;
+    private final double m2;
+    private final double min;
+    private final double max;
+
+    VectorStats(int count, double sum, double mean, double m2, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param values the values, not modified
+     * @return statistics of <code>values</code>
+     */
+    public static VectorStats of(double[] values) {
+        int n = 0;
+        double sum = 0.0;
+        double mean = 0.0;
+        double m2 = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double val : values) {
+            n++;
+            sum += val;
+            double delta = val - mean;
+            mean += delta / n;
+            m2 += delta * (val - mean);
+            min = Math.min(min, val);
+            max = Math.max(max, val);
+        }
+        return new VectorStats(n, sum, mean, m2, min, max);
+    }
+
+    /**
+     * Statistics of <code>a + b</code>, without creating the sum.
+     * @param a vector 1
+     * @param b vector 2, user must ensure that it has the same dimensionality as <code>a</code>
+     * @return statistics of <code>a + b</code>
+     */
+    public static VectorStats ofSum(Vector a, Vector b) {
+        int n = 0;
+        double sum = 0.0;
+        double mean = 0.0;
+        double m2 = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < a.getNumDimensions(); i++) {
+            double val = a.getValue(i) + b.getValue(i);
+            n++;
+            sum += val;
+            double delta = val - mean;
+            mean += delta / n;
+            m2 += delta * (val - mean);
+            min = Math.min(min, val);
+            max = Math.max(max, val);
+        }
+        return new VectorStats(n, sum, mean, m2, min, max);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return sum of squared deviations from the mean: SUM{ (x_i - mean)^2 }
+     */
+    public double getM2() {
+        return m2;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return population variance: M2 / count
+     */
+    public double variance() {
+        return m2 / count;
+    }
+
+    /**
+     * @return population standard deviation: sqrt(M2 / count)
+     */
+    public double std() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * @return sample variance: M2 / (count - 1)
+     */
+    public double sampleVariance() {
+        return m2 / (count - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", sum=" + sum + ", mean=" + mean + ", M2=" + m2 + ", min=" + min + ", max=" + max;
+    }
+}
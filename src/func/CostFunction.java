@@ -17,8 +17,13 @@
  */
 package func;
 
+import java.util.List;
+
 import data.Plan;
+import data.PlanMatrix;
 import data.DataType;
+import data.HasValue;
+import data.Vector;
 
 /**
  * A function that assigns a cost value to any given data instance.
@@ -28,8 +33,118 @@ import data.DataType;
  */
 public abstract class CostFunction<V extends DataType<V>> implements PlanCostFunction<V> {
 
+    private final ThreadLocal<V> scratch = new ThreadLocal<>();
+
     public abstract double calcCost(V value);
 
+    /**
+     * Calculates the cost of <code>constant + candidate</code> without
+     * modifying any of the arguments. The default implementation assembles the
+     * sum in a scratch value that is reused between calls; subclasses may
+     * override it with a fused implementation that does not materialize the
+     * sum at all.
+     *
+     * @param constant the constant part of the value, e.g. the response of
+     * all other agents
+     * @param candidate the candidate that is added to the constant, e.g. a plan;
+     * user must ensure that both are of the same size in every call
+     * @return the cost of the sum
+     */
+    public double calcCostOfSum(V constant, V candidate) {
+        V sum = scratch.get();
+        if (sum == null) {
+            sum = constant.cloneThis();
+            scratch.set(sum);
+        } else {
+            sum.set(constant);
+        }
+        sum.add(candidate);
+        return calcCost(sum);
+    }
+
+    /**
+     * Same as {@link #calcCostOfSum(DataType, DataType)}, but the evaluation
+     * may be abandoned as soon as the cost is known to exceed the upper
+     * bound. If the cost is at most <code>upperBound</code>, exactly the
+     * value of {@link #calcCostOfSum(DataType, DataType)} is returned;
+     * otherwise any value greater than <code>upperBound</code> may be
+     * returned. The default implementation always evaluates the full cost.
+     *
+     * @param constant the constant part of the value
+     * @param candidate the candidate that is added to the constant
+     * @param upperBound costs above this value need not be computed exactly,
+     * e.g. the best cost found so far
+     * @return the cost of the sum, or a value greater than the upper bound
+     */
+    public double calcCostOfSum(V constant, V candidate, double upperBound) {
+        return calcCostOfSum(constant, candidate);
+    }
+
+    /**
+     * Calculates the cost of <code>constant + candidate</code> for every
+     * candidate.
+     *
+     * @param constant the constant part shared by all candidates, or
+     * <code>null</code> to score the candidates alone
+     * @param candidates the candidates, e.g. the plans of an agent
+     * @param costs output array, one cost per candidate
+     */
+    public void calcCosts(V constant, List<? extends HasValue<? extends V>> candidates, double[] costs) {
+        calcCosts(constant, candidates, costs, 0, candidates.size(), false);
+    }
+
+    /**
+     * Calculates the cost of <code>constant + candidate</code> for the
+     * candidates <code>from, ..., to-1</code>. Terms that depend only on the
+     * constant are computed once per call. The default implementation
+     * evaluates the candidates one after another; plans backed by a
+     * {@link PlanMatrix} are copied row by row into a single scratch vector,
+     * so no plan objects are created.
+     *
+     * With <code>earlyAbandon</code>, only the minimal cost matters: the cost
+     * of a candidate that exceeds the minimum of the preceding candidates of
+     * the range may be any larger value, see
+     * {@link #calcCostOfSum(DataType, DataType, double)}. A sequential scan
+     * for the minimum in index order is not affected by that.
+     *
+     * @param constant the constant part shared by all candidates, or <code>null</code>
+     * @param candidates the candidates
+     * @param costs output array, the cost of candidate <code>i</code> is stored at index <code>i</code>
+     * @param from first candidate, inclusive
+     * @param to last candidate, exclusive
+     * @param earlyAbandon whether costs above the running minimum may be inexact
+     */
+    @SuppressWarnings("unchecked")
+    public void calcCosts(V constant, List<? extends HasValue<? extends V>> candidates, double[] costs, int from, int to, boolean earlyAbandon) {
+        double bound = Double.POSITIVE_INFINITY;
+        if (candidates instanceof PlanMatrix.PlanList) {
+            // plan matrices hold vectors only
+            CostFunction<Vector> costFunction = (CostFunction<Vector>) (CostFunction<?>) this;
+            PlanMatrix matrix = ((PlanMatrix.PlanList) candidates).getPlanMatrix();
+            Vector plan = new Vector(matrix.getNumDimensions());
+            for (int i = from; i < to; i++) {
+                matrix.copyRow(i, plan);
+                if (constant != null) {
+                    costs[i] = costFunction.calcCostOfSum((Vector) constant, plan, earlyAbandon ? bound : Double.POSITIVE_INFINITY);
+                    bound = Math.min(bound, costs[i]);
+                } else {
+                    costs[i] = costFunction.calcCost(plan);
+                }
+            }
+            return;
+        }
+
+        for (int i = from; i < to; i++) {
+            V candidate = candidates.get(i).getValue();
+            if (constant != null) {
+                costs[i] = calcCostOfSum(constant, candidate, earlyAbandon ? bound : Double.POSITIVE_INFINITY);
+                bound = Math.min(bound, costs[i]);
+            } else {
+                costs[i] = calcCost(candidate);
+            }
+        }
+    }
+
     @Override
     public final double calcCost(Plan<V> plan) {
         return calcCost(plan.getValue());
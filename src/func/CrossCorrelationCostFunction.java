@@ -3,9 +3,12 @@ package func;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
-import org.apache.commons.math3.complex.Complex;
 import config.Configuration;
+import data.RealFourierTransform;
 import data.Vector;
+import data.VectorStats;
+import func.goalsignals.MemoizedGoalSignal;
+import func.goalsignals.PreparedGoalSignal;
 
 
 /**
@@ -25,73 +28,171 @@ public class CrossCorrelationCostFunction extends DifferentiableCostFunction<Vec
 	}
 	
 	public static Vector goalSignal = null;
+	public static PreparedGoalSignal preparedGoal = null;
 	public static boolean shouldSlide = false;
 	
+	private static final ThreadLocal<SlidingWorkspace> workspace = new ThreadLocal<>();
+	
 	static Logger logger = Logger.getLogger(CrossCorrelationCostFunction.class.getName());
 	
 	public static void populateGoalSignal() {
 		try {
-			goalSignal = Configuration.goalSignalSupplier.get();
+			preparedGoal = MemoizedGoalSignal.prepare(Configuration.goalSignalSupplier);
+			goalSignal = preparedGoal.getSignal();
 		} catch(NullPointerException e) {
 			logger.log(Configuration.loggingLevel, "Goal Signal was not set. Nothing to compare!");
 			throw new NullPointerException();
 		}
 	}
 	
+	/**
+	 * @return the prepared goal signal, prepared again if <code>goalSignal</code> was replaced
+	 */
+	private static PreparedGoalSignal prepared() {
+		PreparedGoalSignal prepared = CrossCorrelationCostFunction.preparedGoal;
+		if(prepared == null || prepared.getSignal() != CrossCorrelationCostFunction.goalSignal) {
+			prepared = PreparedGoalSignal.of(CrossCorrelationCostFunction.goalSignal);
+			CrossCorrelationCostFunction.preparedGoal = prepared;
+		}
+		return prepared;
+	}
+	
 	@Override
 	public double calcCost(Vector value) {
 		if(CrossCorrelationCostFunction.shouldSlide) {
-			return crossCorrelationWithSliding(value, CrossCorrelationCostFunction.goalSignal);
+			return crossCorrelationWithSliding(value.stats(), value, null, prepared());
 		} else {
 //			Map<SignalType, Vector> normalized = CrossCorrelationCostFunction.normalize(value, CrossCorrelationCostFunction.goalSignal);
-			return crossCorrelationCoefficient(value, CrossCorrelationCostFunction.goalSignal);
+			return crossCorrelationCoefficient(value.stats(), value, null, prepared());
 		}
 	}
 	
-	private static double crossCorrelationWithSliding(Vector response, Vector goal) {
-		Map<SignalType, Vector> normalized = CrossCorrelationCostFunction.normalize2(response, goal);
-		Complex[] otherF = Vector.forwardFourierTransform(normalized.get(SignalType.RESPONSE));
-		Complex[] goalF = Vector.forwardFourierTransform(normalized.get(SignalType.GOAL));
-		Complex[] crossCorrelationF = Vector.crossCorrelationInFrequencyDomain(goalF, otherF);
-		Vector result = Vector.convertWreal(crossCorrelationF);
-		return lossFunction(result.max());
+	/**
+	 * Same as {@link #calcCost(Vector)} applied to <code>constant + candidate</code>,
+	 * without creating the sum. Without sliding, a statistics pass is followed by a
+	 * pass against the cached centered goal signal; with sliding, only the response
+	 * is transformed forward and the cross spectrum backward.
+	 */
+	@Override
+	public double calcCostOfSum(Vector constant, Vector candidate) {
+		VectorStats stats = VectorStats.ofSum(constant, candidate);
+		if(CrossCorrelationCostFunction.shouldSlide) {
+			return crossCorrelationWithSliding(stats, constant, candidate, prepared());
+		}
+		return crossCorrelationCoefficient(stats, constant, candidate, prepared());
+	}
+	
+	/**
+	 * Zero-normalized cross-correlation of both signals at every delay at which they
+	 * overlap. The response is centered in a workspace of the calling thread and
+	 * transformed; its spectrum is multiplied with the conjugated spectrum of the
+	 * centered goal signal, which is cached, and transformed back. The transforms are
+	 * padded to at least <code>2n - 1</code> values, so the correlation does not wrap
+	 * around. At delay 0 the result equals the coefficient without sliding.
+	 * @param stats statistics of <code>value + addend</code>
+	 * @param value the response
+	 * @param addend added to the response, or <code>null</code>
+	 * @param goal prepared goal signal
+	 */
+	private static double crossCorrelationWithSliding(VectorStats stats, Vector value, Vector addend, PreparedGoalSignal goal) {
+		int n = value.getNumDimensions();
+		double[] correlations = slide(stats, value, addend, goal);
+		
+		// delays 0, ..., n-1 at the front, delays -1, ..., -(n-1) at the back
+		int size = correlations.length;
+		double max = Double.NEGATIVE_INFINITY;
+		for(int k = 0; k < n; k++) {
+			max = Math.max(max, correlations[k]);
+		}
+		for(int k = 1; k < n; k++) {
+			max = Math.max(max, correlations[size - k]);
+		}
+		
+		double stdevs = n * goal.getStd() * stats.std() + 1e-10;
+		return lossFunction(max / stdevs);
+	}
+	
+	/**
+	 * Cross-correlation of the centered response and the centered goal signal:
+	 * the value at position k is <code>SUM{ g_m * r_(m+k) }</code> for delays
+	 * k = 0, ..., n-1, and position <code>size - k</code> holds delay -k.
+	 * @param stats statistics of <code>value + addend</code>
+	 * @param value the response
+	 * @param addend added to the response, or <code>null</code>
+	 * @param goal prepared goal signal
+	 * @return the correlations, in the workspace of the calling thread
+	 */
+	private static double[] slide(VectorStats stats, Vector value, Vector addend, PreparedGoalSignal goal) {
+		int n = value.getNumDimensions();
+		double mean = stats.getMean();
+		
+		SlidingWorkspace workspace = CrossCorrelationCostFunction.workspace.get();
+		if(workspace == null || workspace.transform.getSize() != goal.getTransformSize()) {
+			workspace = new SlidingWorkspace(goal.getTransformSize());
+			CrossCorrelationCostFunction.workspace.set(workspace);
+		}
+		double[] signal = workspace.signal;
+		double[] re = workspace.re;
+		double[] im = workspace.im;
+		
+		for(int i = 0; i < n; i++) {
+			double other = addend == null ? value.getValue(i) : value.getValue(i) + addend.getValue(i);
+			signal[i] = other - mean;
+		}
+		workspace.transform.forward(signal, n, re, im);
+		
+		// conj(G) * R
+		double[] goalRe = goal.getCenteredTransformRe();
+		double[] goalIm = goal.getCenteredTransformIm();
+		for(int k = 0; k < workspace.transform.getNumBins(); k++) {
+			double r = goalRe[k] * re[k] + goalIm[k] * im[k];
+			double i = goalRe[k] * im[k] - goalIm[k] * re[k];
+			re[k] = r;
+			im[k] = i;
+		}
+		workspace.transform.inverse(re, im, signal);
+		return signal;
+	}
+	
+	/**
+	 * Transform and buffers for sliding cross-correlation, one per thread.
+	 */
+	private static class SlidingWorkspace {
+		
+		private final RealFourierTransform 	transform;
+		private final double[] 				signal;
+		private final double[] 				re;
+		private final double[] 				im;
+		
+		SlidingWorkspace(int size) {
+			this.transform = new RealFourierTransform(size);
+			this.signal = new double[size];
+			this.re = new double[this.transform.getNumBins()];
+			this.im = new double[this.transform.getNumBins()];
+		}
 	}
 	
 	/**
 	 * Computes zero-normalized cross-correlation coefficient without delaying of signals.
-	 * This is cross-correlation and normalization of signals together.
+	 * This is cross-correlation and normalization of signals together. The statistics
+	 * and the centered replica of the goal signal are cached, so neither signal is cloned.
 	 * 
 	 * As IEPOS is minimization algorithm, and higher values of correlation are preferred,
 	 * output of this function is _inverse_ cross-correlation coefficient.
-	 * @param response (unnormalized) response vector
-	 * @param goal (unnormalized) goal signal
+	 * @param stats statistics of <code>value + addend</code>
+	 * @param value (unnormalized) response vector
+	 * @param addend added to the response, or <code>null</code>
+	 * @param goal prepared goal signal
 	 * @return squared inverse cross correlation coefficient
 	 */
-	private static double crossCorrelationCoefficient(Vector response, Vector goal) {
+	private static double crossCorrelationCoefficient(VectorStats stats, Vector value, Vector addend, PreparedGoalSignal goal) {
 		// Standard deviation of both signals
-		double goal_stdev = goal.std();
-		double response_stdev = response.std();
+		double goal_stdev = goal.getStd();
+		double response_stdev = stats.std();
 		
-//		if(goal_stdev == 0) {
-//			System.out.println("Standard deviation of goal signal is 0");
-//		}
-//		if(response_stdev == 0) {
-//			System.out.println("Standard deviation of response signal is 0");
-//		}
-		
-		Vector goalReplicate = goal.cloneThis();
-		Vector responseReplicate = response.cloneThis();
-		
-		// means of both signals
-		double goal_mean = goalReplicate.avg();
-		double response_mean = responseReplicate.avg();
-		
-		goalReplicate.subtract(goal_mean);
-		responseReplicate.subtract(response_mean);
-		
-		// multiplying signals from which their mean was already subtracted
-		double total_sum = responseReplicate.dot(goalReplicate);
-		double stdevs = response.getNumDimensions() * goal_stdev * response_stdev + 1e-10;
+		// sum of products of signals from which their mean was subtracted
+		double total_sum = goal.comoment(value, addend, stats.getMean());
+		double stdevs = stats.getCount() * goal_stdev * response_stdev + 1e-10;
 		//                                                                           ^
 		//                                                                          added because deviations can be 0!
 		
@@ -119,27 +220,6 @@ public class CrossCorrelationCostFunction extends DifferentiableCostFunction<Vec
 		return CrossCorrelationCostFunction.scale(translated);		
 	}
 	
-	static Map<SignalType, Vector> normalize2(Vector response, Vector goal) {
-		double response_mean = response.avg();
-		double goal_mean = goal.avg();
-		double response_std = response.std();
-		double goal_std = goal.std();
-		
-		Vector response_n = response.cloneThis();
-		response_n.subtract(response_mean);
-		response_n.multiply(1/(response_std*goal_std));
-		
-		Vector goal_n = goal.cloneThis();
-		goal_n.subtract(goal_mean);
-		goal_n.multiply(1/(response_std*goal_std));
-		
-		Map<SignalType, Vector> map = new HashMap<SignalType, Vector>();
-		map.put(SignalType.RESPONSE, response_n);
-		map.put(SignalType.GOAL, goal_n);
-		
-		return map;
-	}
-	
 	/**
 	 * Translated both signals so that center of mass of signal is at 0
 	 * @param other
@@ -183,10 +263,62 @@ public class CrossCorrelationCostFunction extends DifferentiableCostFunction<Vec
 		return translated;
 	}	
 
+	/**
+	 * Gradient of the cost with respect to the response x. The cost is
+	 * <code>-c / D</code> with the correlation <code>c</code> at the chosen delay d and
+	 * <code>D = n * std_g * std_x + 1e-10</code>, so the gradient is:
+	 * 		-( dc/dx_j * D - c * std_g * (x_j - mean_x) / std_x ) / D^2
+	 * where <code>dc/dx_j = g'_(j-d) - SUM{ g'_m | m overlaps at delay d } / n</code> for
+	 * the centered goal signal g'. Without sliding the delay is 0. With sliding it is
+	 * the delay of the maximal correlation, which gives a subgradient where several
+	 * delays attain the maximum.
+	 */
 	@Override
 	public Vector calcGradient(Vector value) {
-		System.out.println("I DON'T HAVE GRADIENT IMPLEMENTED.");
-		return null;
+		int n = value.getNumDimensions();
+		PreparedGoalSignal goal = prepared();
+		VectorStats stats = value.stats();
+		
+		int delay = 0;
+		double correlation;
+		if(CrossCorrelationCostFunction.shouldSlide) {
+			double[] correlations = slide(stats, value, null, goal);
+			int size = correlations.length;
+			correlation = Double.NEGATIVE_INFINITY;
+			for(int k = 0; k < n; k++) {
+				if(correlations[k] > correlation) {
+					correlation = correlations[k];
+					delay = k;
+				}
+			}
+			for(int k = 1; k < n; k++) {
+				if(correlations[size - k] > correlation) {
+					correlation = correlations[size - k];
+					delay = -k;
+				}
+			}
+		} else {
+			correlation = goal.comoment(value, null, stats.getMean());
+		}
+		
+		Vector centered = goal.getCentered();
+		double overlapSum = 0.0;
+		for(int m = Math.max(0, -delay); m < Math.min(n, n - delay); m++) {
+			overlapSum += centered.getValue(m);
+		}
+		
+		double goalStd = goal.getStd();
+		double std = stats.std();
+		double stdevs = n * goalStd * std + 1e-10;
+		double factor = std == 0.0 ? 0.0 : correlation * goalStd / std;
+		Vector gradient = new Vector(n);
+		for(int j = 0; j < n; j++) {
+			int m = j - delay;
+			double derivative = (m >= 0 && m < n ? centered.getValue(m) : 0.0) - overlapSum / n;
+			double x = value.getValue(j) - stats.getMean();
+			gradient.setValue(j, -(derivative * stdevs - factor * x) / (stdevs * stdevs));
+		}
+		return gradient;
 	}
 	
 	@Override
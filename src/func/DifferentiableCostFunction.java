@@ -6,6 +6,7 @@
 package func;
 
 import data.DataType;
+import data.Vector;
 
 /**
  * A function that assigns a cost value to any given data instance. Furthermore,
@@ -18,4 +19,29 @@ import data.DataType;
 public abstract class DifferentiableCostFunction<V extends DataType<V>> extends CostFunction<V> {
 
     public abstract V calcGradient(V value);
+
+    /**
+     * Approximates the gradient of a cost function by central differences,
+     * using a step of <code>1e-6 * max(1, |x_i|)</code> in dimension i.
+     * Needs <code>2 * value.getNumDimensions()</code> cost evaluations.
+     *
+     * @param costFunction the cost function
+     * @param value the point at which the gradient is approximated, not modified
+     * @return the approximated gradient
+     */
+    public static Vector numericalGradient(CostFunction<Vector> costFunction, Vector value) {
+        Vector point = value.cloneThis();
+        Vector gradient = new Vector(value.getNumDimensions());
+        for (int i = 0; i < value.getNumDimensions(); i++) {
+            double x = value.getValue(i);
+            double h = 1e-6 * Math.max(1.0, Math.abs(x));
+            point.setValue(i, x + h);
+            double upper = costFunction.calcCost(point);
+            point.setValue(i, x - h);
+            double lower = costFunction.calcCost(point);
+            point.setValue(i, x);
+            gradient.setValue(i, (upper - lower) / (2 * h));
+        }
+        return gradient;
+    }
 }
@@ -5,6 +5,9 @@
  */
 package func;
 
+import java.util.List;
+
+import data.HasValue;
 import data.Vector;
 
 /**
@@ -12,7 +15,7 @@ import data.Vector;
  * 
  * @author Peter
  */
-public class DotCostFunction extends DifferentiableCostFunction<Vector> {
+public class DotCostFunction extends DifferentiableCostFunction<Vector> implements QuadraticCostFunction {
     private Vector costVector;
     
     /**
@@ -33,6 +36,43 @@ public class DotCostFunction extends DifferentiableCostFunction<Vector> {
         return costVector.dot(value);
     }
 
+    @Override
+    public double calcCostOfSum(Vector constant, Vector candidate) {
+        double dot = 0;
+        for (int i = 0; i < costVector.getNumDimensions(); i++) {
+            dot += costVector.getValue(i) * (constant.getValue(i) + candidate.getValue(i));
+        }
+        return dot;
+    }
+
+    /**
+     * Scores plans in closed form if {@link config.Configuration#closedFormScoring} is set, see {@link QuadraticCostFunction#calcCosts(QuadraticCostFunction, Vector, List, double[], int, int)}.
+     */
+    @Override
+    public void calcCosts(Vector constant, List<? extends HasValue<? extends Vector>> candidates, double[] costs, int from, int to, boolean earlyAbandon) {
+        if (!QuadraticCostFunction.calcCosts(this, constant, candidates, costs, from, to)) {
+            super.calcCosts(constant, candidates, costs, from, to, earlyAbandon);
+        }
+    }
+
+    /**
+     * w^T * (c + p) = w^T * c + w^T * p
+     */
+    @Override
+    public double constantTerm(Vector constant) {
+        return costVector.dot(constant);
+    }
+
+    @Override
+    public Vector linearTerm(Vector constant) {
+        return costVector;
+    }
+
+    @Override
+    public double planTerm(double sum, double normSqr, double m2, int numDimensions) {
+        return 0;
+    }
+
     @Override
     public String toString() {
         return "dot product";
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Sums of squared residuals that are abandoned once they exceed an upper
+ * bound, see {@link CostFunction#calcCostOfSum(data.DataType, data.DataType, double)}.
+ *
+ * The residuals are first probed at every {@value #PROBE_STRIDE}-th
+ * dimension. The probe samples the whole signal, so a candidate that is
+ * clearly worse somewhere is rejected after a fraction of the dimensions,
+ * whereas a scan from the first dimension would only see its beginning.
+ * Candidates that survive the probe are summed in the order of the
+ * dimensions, exactly as a full evaluation would, and the partial sum is
+ * checked against the bound after every block of dimensions.
+ *
+ * @author Peter P. & Jovan N.
+ */
+final class EarlyAbandon {
+
+    static final int PROBE_STRIDE = 8;
+    static final int BLOCK_SIZE = 16;
+    // the probe sums in a different order, so it must exceed the bound by more than any rounding error
+    private static final double PROBE_MARGIN = 1e-9;
+
+    private EarlyAbandon() {
+    }
+
+    /**
+     * @param numDimensions number of residuals
+     * @param upperBound sums above this bound need not be computed exactly
+     * @param residual the residual of a dimension
+     * @return SUM{residual(i)^2} in the order of the dimensions if it is at
+     * most the bound, otherwise a partial sum greater than the bound
+     */
+    static double sumOfSquares(int numDimensions, double upperBound, IntToDoubleFunction residual) {
+        if (upperBound < Double.POSITIVE_INFINITY && numDimensions >= 2 * PROBE_STRIDE) {
+            double probe = 0.0;
+            for (int i = 0; i < numDimensions; i += PROBE_STRIDE) {
+                double diff = residual.applyAsDouble(i);
+                probe += diff * diff;
+            }
+            if (probe > upperBound * (1 + PROBE_MARGIN)) {
+                return probe;
+            }
+        }
+
+        double sum = 0.0;
+        for (int from = 0; from < numDimensions; from += BLOCK_SIZE) {
+            int to = Math.min(from + BLOCK_SIZE, numDimensions);
+            for (int i = from; i < to; i++) {
+                double diff = residual.applyAsDouble(i);
+                sum += diff * diff;
+            }
+            if (sum > upperBound) {
+                return sum;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func;
+
+import java.util.List;
+
+import config.Configuration;
+import data.HasValue;
+import data.Plan;
+import data.PlanMatrix;
+import data.PlanStats;
+import data.Vector;
+
+/**
+ * A cost function whose cost of a sum <code>c + p</code> decomposes into
+ * <pre>
+ *     cost(c + p) = K(c) + planTerm(SUM{p_i}, SUM{p_i^2}, SUM{(p_i - avg(p))^2}, d) + u(c)^T * p
+ * </pre>
+ * The constant term <code>K</code> and the linear coefficients <code>u</code>
+ * depend only on the constant <code>c</code>, while the plan term depends only
+ * on the sum, the squared norm and the squared deviations of the plan, which
+ * never change. Scoring all
+ * plans of an agent against the same constant therefore needs a single
+ * matrix-vector product instead of one full cost evaluation per plan.
+ *
+ * The closed form rounds differently than the exact evaluation, which can
+ * break ties between equally good plans differently, so it is only used if
+ * {@link Configuration#closedFormScoring} is set.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public interface QuadraticCostFunction {
+
+    /**
+     * @param constant the constant part <code>c</code> of the sum
+     * @return the constant term <code>K(c)</code>
+     */
+    public double constantTerm(Vector constant);
+
+    /**
+     * @param constant the constant part <code>c</code> of the sum
+     * @return the linear coefficients <code>u(c)</code>
+     */
+    public Vector linearTerm(Vector constant);
+
+    /**
+     * @param sum sum of all values of the plan
+     * @param normSqr squared Euclidean norm of the plan
+     * @param m2 sum of squared deviations of the plan from its mean; computed
+     * from the centered values, so it does not suffer the cancellation of
+     * <code>normSqr - sum^2/d</code>
+     * @param numDimensions dimensionality of the plan
+     * @return the part of the cost that depends only on the plan; never negative
+     */
+    public double planTerm(double sum, double normSqr, double m2, int numDimensions);
+
+    /**
+     * Batched evaluation for {@link CostFunction#calcCosts(data.DataType, List, double[], int, int, boolean)}.
+     * The constant and linear terms are computed once. Rows of a plan matrix
+     * are scored with a single matrix-vector product and the cached row
+     * statistics; plans in a list with one dot product each and their cached
+     * {@link PlanStats}. All costs are exact.
+     *
+     * @param costFunction
+     * @param constant the constant part shared by all candidates
+     * @param candidates the candidates
+     * @param costs output array
+     * @param from first candidate, inclusive
+     * @param to last candidate, exclusive
+     * @return false if the candidates are not scored this way, e.g. if
+     * closed-form scoring is disabled, there is no constant or they are no
+     * plans; then nothing is computed
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean calcCosts(QuadraticCostFunction costFunction, Vector constant,
+            List<? extends HasValue<? extends Vector>> candidates, double[] costs, int from, int to) {
+        if (!Configuration.closedFormScoring || constant == null) {
+            return false;
+        }
+
+        if (candidates instanceof PlanMatrix.PlanList) {
+            PlanMatrix matrix = ((PlanMatrix.PlanList) candidates).getPlanMatrix();
+            int numDimensions = matrix.getNumDimensions();
+            double[] sums = matrix.getRowSums();
+            double[] normSqrs = matrix.getRowNormSqrs();
+            double[] m2s = matrix.getRowM2s();
+            double constantTerm = costFunction.constantTerm(constant);
+            Vector linearTerm = costFunction.linearTerm(constant);
+
+            matrix.multiply(linearTerm, costs, from, to);
+            for (int i = from; i < to; i++) {
+                costs[i] += constantTerm + costFunction.planTerm(sums[i], normSqrs[i], m2s[i], numDimensions);
+            }
+            return true;
+        }
+
+        if (from < to && candidates.get(from) instanceof Plan) {
+            List<Plan<Vector>> plans = (List<Plan<Vector>>) (List<?>) candidates;
+            double constantTerm = costFunction.constantTerm(constant);
+            Vector linearTerm = costFunction.linearTerm(constant);
+
+            for (int i = from; i < to; i++) {
+                Plan<Vector> plan = plans.get(i);
+                PlanStats stats = plan.getStats();
+                costs[i] = linearTerm.dot(plan.getValue())
+                        + (constantTerm + costFunction.planTerm(stats.getSum(), stats.getNormSqr(), stats.getM2(), stats.getNumDimensions()));
+            }
+            return true;
+        }
+        return false;
+    }
+}
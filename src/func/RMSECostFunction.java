@@ -2,6 +2,9 @@ package func;
 
 import config.Configuration;
 import data.Vector;
+import data.VectorStats;
+import func.goalsignals.MemoizedGoalSignal;
+import func.goalsignals.PreparedGoalSignal;
 
 public class RMSECostFunction extends DifferentiableCostFunction<Vector> {
 	
@@ -11,27 +14,96 @@ public class RMSECostFunction extends DifferentiableCostFunction<Vector> {
 	
 	
 	public static void populateGoalSignal() {
-		RMSECostFunction.goalSignal = Configuration.goalSignalSupplier.get();
-		RMSECostFunction.goalMean = RMSECostFunction.goalSignal.avg();
-		RMSECostFunction.goalStd = RMSECostFunction.goalSignal.std();
+		PreparedGoalSignal goal = MemoizedGoalSignal.prepare(Configuration.goalSignalSupplier);
+		RMSECostFunction.goalSignal = goal.getSignal();
+		RMSECostFunction.goalMean = goal.getMean();
+		RMSECostFunction.goalStd = goal.getStd();
 	}
 
 	@Override
 	public double calcCost(Vector value) {
-		double otherMean = value.avg();
-		double otherStd = value.std();		
-		Vector goalReplica = RMSECostFunction.goalSignal.cloneThis();
-		goalReplica.subtract(RMSECostFunction.goalMean);
-		double multiplicativeFactor = otherStd / (RMSECostFunction.goalStd + 1e-10);
-		goalReplica.multiply(multiplicativeFactor);
-		goalReplica.add(otherMean);
-		return goalReplica.rootMeanSquareError(value);
+		return RMSECostFunction.rootMeanSquareError(value.stats(), value, null, Double.POSITIVE_INFINITY);
 	}
 	
+	/**
+	 * Same as {@link #calcCost(Vector)} applied to <code>constant + candidate</code>,
+	 * but neither the sum nor the rescaled goal signal is materialized.
+	 */
+	@Override
+	public double calcCostOfSum(Vector constant, Vector candidate) {
+		return RMSECostFunction.rootMeanSquareError(VectorStats.ofSum(constant, candidate), constant, candidate, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * The error pass is abandoned once the error exceeds the upper bound; the
+	 * statistics pass always covers all dimensions.
+	 */
+	@Override
+	public double calcCostOfSum(Vector constant, Vector candidate, double upperBound) {
+		return RMSECostFunction.rootMeanSquareError(VectorStats.ofSum(constant, candidate), constant, candidate, upperBound);
+	}
+	
+	/**
+	 * Root mean square error between <code>value + addend</code> and the goal signal
+	 * rescaled to the mean and standard deviation of <code>value + addend</code>.
+	 * @param stats statistics of <code>value + addend</code>
+	 * @param value the response
+	 * @param addend added to the response, or <code>null</code>
+	 * @param upperBound errors above this bound need not be computed exactly
+	 */
+	private static double rootMeanSquareError(VectorStats stats, Vector value, Vector addend, double upperBound) {
+		int n = value.getNumDimensions();
+		double otherMean = stats.getMean();
+		double multiplicativeFactor = stats.std() / (RMSECostFunction.goalStd + 1e-10);
+		
+		// bound of the squared error, slightly loosened so that rounding never abandons an error equal to the bound
+		double bound = upperBound < 0 ? -1.0 : upperBound * upperBound * n * (1 + 1e-12);
+		double squaredError = EarlyAbandon.sumOfSquares(n, bound, i -> {
+			double replica = (RMSECostFunction.goalSignal.getValue(i) - RMSECostFunction.goalMean) * multiplicativeFactor + otherMean;
+			double other = addend == null ? value.getValue(i) : value.getValue(i) + addend.getValue(i);
+			return replica - other;
+		});
+		return Math.sqrt(squaredError / n);
+	}
+	
+	/**
+	 * Gradient of the root mean square error with respect to the response x.
+	 * With the rescaled goal <code>z_i * std_x + mean_x</code>, where <code>z_i = (g_i - mean_g)/(std_g + 1e-10)</code>,
+	 * and the errors <code>e_i = z_i * std_x + mean_x - x_i</code>, the gradient is:
+	 * 		( SUM{ e_i * z_i } * (x_j - mean_x)/(n * std_x) + SUM{ e_i }/n - e_j ) / (n * RMSE)
+	 * It is zero where the error is zero.
+	 */
 	@Override
 	public Vector calcGradient(Vector value) {
-		System.err.println("I DON'T HAVE FUCKING GRADIENT!");
-		return null;
+		int n = value.getNumDimensions();
+		VectorStats stats = value.stats();
+		double mean = stats.getMean();
+		double std = stats.std();
+		double goalScale = 1.0 / (RMSECostFunction.goalStd + 1e-10);
+		
+		Vector gradient = new Vector(n);
+		double sumError = 0.0;
+		double sumProduct = 0.0;
+		double squaredError = 0.0;
+		for(int i = 0; i < n; i++) {
+			double z = (RMSECostFunction.goalSignal.getValue(i) - RMSECostFunction.goalMean) * goalScale;
+			double error = z * std + mean - value.getValue(i);
+			gradient.setValue(i, error);
+			sumError += error;
+			sumProduct += error * z;
+			squaredError += error * error;
+		}
+		double rmse = Math.sqrt(squaredError / n);
+		if(rmse == 0.0) {
+			gradient.set(0);
+			return gradient;
+		}
+		double factor = std == 0.0 ? 0.0 : sumProduct / (n * std);
+		for(int i = 0; i < n; i++) {
+			double error = gradient.getValue(i);
+			gradient.setValue(i, (factor * (value.getValue(i) - mean) + sumError / n - error) / (n * rmse));
+		}
+		return gradient;
 	}
 
 }
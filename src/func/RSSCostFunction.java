@@ -1,10 +1,13 @@
 package func;
 
 
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 
 import config.Configuration;
 import data.Vector;
+import func.goalsignals.MemoizedGoalSignal;
+import func.goalsignals.PreparedGoalSignal;
 
 
 /**
@@ -14,7 +17,7 @@ import data.Vector;
  * @author Jovan N.
  *
  */
-public class RSSCostFunction extends DifferentiableCostFunction<Vector> {
+public class RSSCostFunction extends DifferentiableCostFunction<Vector> implements TargetTrackingCostFunction {
 	
 	private enum SignalType {
 		GOAL,
@@ -27,26 +30,157 @@ public class RSSCostFunction extends DifferentiableCostFunction<Vector> {
 	
 	static Logger logger = Logger.getLogger(RSSCostFunction.class.getName());
 	
+	/**
+	 * The normalized goal signal is taken from the prepared goal signal, which
+	 * normalizes it once per normalizer; see {@link MemoizedGoalSignal}.
+	 */
 	public static void populateGoalSignal() {
-		RSSCostFunction.goalSignal = Configuration.goalSignalSupplier.get();
-		RSSCostFunction.goalNormalized = Configuration.normalizer.apply(RSSCostFunction.goalSignal);
+		PreparedGoalSignal goal = MemoizedGoalSignal.prepare(Configuration.goalSignalSupplier);
+		RSSCostFunction.goalSignal = goal.getSignal();
+		RSSCostFunction.goalNormalized = goal.getNormalized(Configuration.normalizer);
 	}	
 	
 	@Override
 	/**
 	 * Calculates residual sum of squares between 2 normalized vectors.
+	 * For the normalizations provided by {@link Vector} the normalized response is never
+	 * materialized, see {@link Vector#normalizedResidualSumOfSquares}.
 	 */
 	public double calcCost(Vector value) {
-		Vector responseNormalized = Configuration.normalizer.apply(value);
+		UnaryOperator<Vector> normalizer = Configuration.normalizer;
+		if(normalizer == Vector.no_normalization) {
+			return Vector.residualSumOfSquares(value, RSSCostFunction.goalNormalized);
+		} else if(Vector.isAffineNormalization(normalizer)) {
+			return Vector.normalizedResidualSumOfSquares(normalizer, value, null, RSSCostFunction.goalNormalized);
+		}
+		Vector responseNormalized = normalizer.apply(value);
 		return Vector.residualSumOfSquares(responseNormalized, RSSCostFunction.goalNormalized);
 	}
 	
+	/**
+	 * Calculates residual sum of squares between normalized <code>constant + candidate</code>
+	 * and the normalized goal signal. For the normalizations provided by {@link Vector}
+	 * neither the sum nor its normalization is materialized. Any other normalizer falls
+	 * back to the default implementation.
+	 */
 	@Override
-	public Vector calcGradient(Vector value) {
-		System.err.println("I DON'T HAVE FUCKING GRADIENT!");
+	public double calcCostOfSum(Vector constant, Vector candidate) {
+		return this.calcCostOfSum(constant, candidate, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Without normalization the residual is abandoned once it exceeds the upper bound.
+	 * Otherwise the statistics of the response and its residual are computed in a
+	 * single pass that always covers all dimensions.
+	 */
+	@Override
+	public double calcCostOfSum(Vector constant, Vector candidate, double upperBound) {
+		UnaryOperator<Vector> normalizer = Configuration.normalizer;
+		Vector goal = RSSCostFunction.goalNormalized;
+		if(normalizer == Vector.no_normalization) {
+			return EarlyAbandon.sumOfSquares(constant.getNumDimensions(), upperBound,
+					i -> constant.getValue(i) + candidate.getValue(i) - goal.getValue(i));
+		} else if(Vector.isAffineNormalization(normalizer)) {
+			return Vector.normalizedResidualSumOfSquares(normalizer, constant, candidate, goal);
+		}
+		return super.calcCostOfSum(constant, candidate);
+	}
+	
+	/**
+	 * Without normalization the cost is the squared distance to the goal signal.
+	 * Any other normalizer depends on the response itself, so there is no fixed target.
+	 */
+	@Override
+	public Vector getTrackingTarget() {
+		if(Configuration.normalizer == Vector.no_normalization) {
+			return RSSCostFunction.goalNormalized;
+		}
 		return null;
 	}
 	
+	/**
+	 * Gradient of the residual sum of squares with respect to the unnormalized response.
+	 * With residual <code>r = normalize(x) - goal</code> the gradient is <code>2 * J^T r</code>,
+	 * where J is the Jacobian of the normalization. For the normalizations provided by
+	 * {@link Vector} it is computed in closed form in O(n):
+	 *  - no normalization: 2 r
+	 *  - standardization with scale s = std + 1e-10:
+	 *    2/s * (r_j - mean(r)) - 2/s^2 * SUM{ r_i * (x_i - mean) } * (x_j - mean) / (n * std)
+	 *  - unit length with scale s = ||x|| + 1e-10:
+	 *    2/s * r_j - 2/s^2 * SUM{ r_i * x_i } * x_j / ||x||
+	 *  - min-max with range R: 2/R * r_j, plus corrections on the positions of the minimum and maximum
+	 * Any other normalizer is differentiated numerically.
+	 */
+	@Override
+	public Vector calcGradient(Vector value) {
+		UnaryOperator<Vector> normalizer = Configuration.normalizer;
+		if(!Vector.isAffineNormalization(normalizer)) {
+			return DifferentiableCostFunction.numericalGradient(this, value);
+		}
+		int n = value.getNumDimensions();
+		Vector gradient = value.cloneThis();
+		gradient.normalize(normalizer);
+		gradient.subtract(RSSCostFunction.goalNormalized);
+		// gradient holds the residual r from here on
+		
+		if(normalizer == Vector.no_normalization) {
+			gradient.multiply(2);
+		} else if(normalizer == Vector.standard_normalization) {
+			double mean = value.avg();
+			double std = value.std();
+			double scale = std + 1e-10;
+			double sumResidual = gradient.sum();
+			double sumProduct = 0.0;
+			for(int i = 0; i < n; i++) {
+				sumProduct += gradient.getValue(i) * (value.getValue(i) - mean);
+			}
+			double factor = std == 0.0 ? 0.0 : 2 * sumProduct / (scale * scale * n * std);
+			for(int i = 0; i < n; i++) {
+				double r = gradient.getValue(i);
+				gradient.setValue(i, 2 / scale * (r - sumResidual / n) - factor * (value.getValue(i) - mean));
+			}
+		} else if(normalizer == Vector.unit_length_normalization) {
+			double norm = Math.sqrt(value.normSqr());
+			double scale = norm + 1e-10;
+			double sumProduct = gradient.dot(value);
+			double factor = norm == 0.0 ? 0.0 : 2 * sumProduct / (scale * scale * norm);
+			for(int i = 0; i < n; i++) {
+				gradient.setValue(i, 2 / scale * gradient.getValue(i) - factor * value.getValue(i));
+			}
+		} else if(normalizer == Vector.min_max_normalization) {
+			// positions found exactly as Vector.min() and Vector.max() find the values
+			int argmin = -1;
+			int argmax = -1;
+			double min = Double.MAX_VALUE;
+			double max = Double.MIN_VALUE;
+			for(int i = 0; i < n; i++) {
+				double val = value.getValue(i);
+				if(val < min) {
+					min = val;
+					argmin = i;
+				}
+				if(val > max) {
+					max = val;
+					argmax = i;
+				}
+			}
+			double range = max - min;
+			double sumResidual = gradient.sum();
+			double sumProduct = 0.0;
+			for(int i = 0; i < n; i++) {
+				sumProduct += gradient.getValue(i) * (value.getValue(i) - min);
+			}
+			gradient.multiply(2 / range);
+			if(argmin >= 0) {
+				gradient.setValue(argmin, gradient.getValue(argmin) - 2 * sumResidual / range + 2 * sumProduct / (range * range));
+			}
+			if(argmax >= 0) {
+				gradient.setValue(argmax, gradient.getValue(argmax) - 2 * sumProduct / (range * range));
+			}
+		}
+		return gradient;
+	}
+	
 	@Override
 	public String toString() {
 		return "Residual sum of Squares";
@@ -17,6 +17,9 @@
  */
 package func;
 
+import java.util.List;
+
+import data.HasValue;
 import data.Vector;
 
 /**
@@ -25,7 +28,7 @@ import data.Vector;
  *
  * @author peter
  */
-public class SqrDistCostFunction extends DifferentiableCostFunction<Vector> {
+public class SqrDistCostFunction extends DifferentiableCostFunction<Vector> implements QuadraticCostFunction, TargetTrackingCostFunction {
 
     private Vector target;
 
@@ -47,6 +50,60 @@ public class SqrDistCostFunction extends DifferentiableCostFunction<Vector> {
         return v.sum();
     }
 
+    @Override
+    public double calcCostOfSum(Vector constant, Vector candidate) {
+        double sum = 0.0;
+        for (int i = 0; i < constant.getNumDimensions(); i++) {
+            double diff = constant.getValue(i) + candidate.getValue(i) - target.getValue(i);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double calcCostOfSum(Vector constant, Vector candidate, double upperBound) {
+        return EarlyAbandon.sumOfSquares(constant.getNumDimensions(), upperBound,
+                i -> constant.getValue(i) + candidate.getValue(i) - target.getValue(i));
+    }
+
+    /**
+     * Scores plans in closed form if {@link config.Configuration#closedFormScoring} is set, see {@link QuadraticCostFunction#calcCosts(QuadraticCostFunction, Vector, List, double[], int, int)}.
+     */
+    @Override
+    public void calcCosts(Vector constant, List<? extends HasValue<? extends Vector>> candidates, double[] costs, int from, int to, boolean earlyAbandon) {
+        if (!QuadraticCostFunction.calcCosts(this, constant, candidates, costs, from, to)) {
+            super.calcCosts(constant, candidates, costs, from, to, earlyAbandon);
+        }
+    }
+
+    /**
+     * |c + p - t|^2 = |c - t|^2 + |p|^2 + 2 * (c - t)^T * p
+     */
+    @Override
+    public double constantTerm(Vector constant) {
+        Vector v = constant.cloneThis();
+        v.subtract(target);
+        return v.normSqr();
+    }
+
+    @Override
+    public Vector linearTerm(Vector constant) {
+        Vector u = constant.cloneThis();
+        u.subtract(target);
+        u.multiply(2);
+        return u;
+    }
+
+    @Override
+    public double planTerm(double sum, double normSqr, double m2, int numDimensions) {
+        return normSqr;
+    }
+
+    @Override
+    public Vector getTrackingTarget() {
+        return target;
+    }
+
     @Override
     public Vector calcGradient(Vector vector) {
         Vector v = vector.cloneThis();
@@ -18,6 +18,7 @@
 package func;
 
 import data.Vector;
+import data.VectorStats;
 
 /**
  * The cost according to this cost function is the standard deviation of the
@@ -30,14 +31,15 @@ public class StdDevCostFunction extends DifferentiableCostFunction<Vector> {
 
     @Override
     public double calcCost(Vector vector) {
-        return vector.std();
+        return vector.stats().std();
     }
 
     @Override
     public Vector calcGradient(Vector vector) {
+        VectorStats stats = vector.stats();
         Vector v = vector.cloneThis();
-        v.subtract(v.avg());
-        double x = Math.sqrt(v.dot(v));
+        v.subtract(stats.getMean());
+        double x = Math.sqrt(stats.getM2());
         if (x == 0.0) {
             v.set(0);
         } else {
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func;
+
+import data.Vector;
+
+/**
+ * A cost function that is the squared Euclidean distance of its argument to a
+ * target vector:
+ * <pre>
+ *     cost(x) = |x - t|^2
+ * </pre>
+ * Minimizing <code>cost(c + p)</code> over the plans <code>p</code> of an
+ * agent is then a nearest-neighbour query of <code>t - c</code> against the
+ * plans, which a spatial index answers without scoring every plan.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public interface TargetTrackingCostFunction {
+
+    /**
+     * @return the target vector <code>t</code>, or <code>null</code> if the
+     * cost function currently is not a squared distance to a fixed target
+     */
+    public Vector getTrackingTarget();
+}
@@ -17,6 +17,9 @@
  */
 package func;
 
+import java.util.List;
+
+import data.HasValue;
 import data.Vector;
 
 /**
@@ -26,13 +29,53 @@ import data.Vector;
  *
  * @author Peter
  */
-public class VarCostFunction extends DifferentiableCostFunction<Vector> {
+public class VarCostFunction extends DifferentiableCostFunction<Vector> implements QuadraticCostFunction {
 
     @Override
     public double calcCost(Vector vector) {
         return vector.variance();
     }
 
+    /**
+     * Variance of <code>constant + candidate</code>, computed exactly as
+     * {@link Vector#variance()} but without creating the sum vector.
+     */
+    @Override
+    public double calcCostOfSum(Vector constant, Vector candidate) {
+        return Vector.varianceOfSum(constant, candidate);
+    }
+
+    /**
+     * Scores plans in closed form if {@link config.Configuration#closedFormScoring} is set, see {@link QuadraticCostFunction#calcCosts(QuadraticCostFunction, Vector, List, double[], int, int)}.
+     */
+    @Override
+    public void calcCosts(Vector constant, List<? extends HasValue<? extends Vector>> candidates, double[] costs, int from, int to, boolean earlyAbandon) {
+        if (!QuadraticCostFunction.calcCosts(this, constant, candidates, costs, from, to)) {
+            super.calcCosts(constant, candidates, costs, from, to, earlyAbandon);
+        }
+    }
+
+    /**
+     * var(c + p) = var(c) + var(p) + 2/d * (c - avg(c))^T * p
+     */
+    @Override
+    public double constantTerm(Vector constant) {
+        return constant.variance();
+    }
+
+    @Override
+    public Vector linearTerm(Vector constant) {
+        Vector u = constant.cloneThis();
+        u.subtract(constant.avg());
+        u.multiply(2.0 / constant.getNumDimensions());
+        return u;
+    }
+
+    @Override
+    public double planTerm(double sum, double normSqr, double m2, int numDimensions) {
+        return Math.max(0, m2 / numDimensions);
+    }
+
     @Override
     public Vector calcGradient(Vector vector) {
         Vector v = vector.cloneThis();
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import java.util.Collections;
+import java.util.Set;
+
+import data.Vector;
+
+/**
+ * An expression compiled by {@link ExpressionCompiler} into a tree of
+ * specialized closures. Element-wise subexpressions are fused into the loop
+ * of the reduction that consumes them, so evaluation creates no vectors.
+ * Every thread evaluates in its own frame, which is created on its first
+ * evaluation and reused afterwards.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public final class CompiledExpression {
+
+    /**
+     * Code of a scalar subexpression.
+     */
+    @FunctionalInterface
+    interface ScalarCode {
+
+        double eval(Frame frame);
+    }
+
+    /**
+     * Code of a vector subexpression, evaluated one element at a time.
+     */
+    @FunctionalInterface
+    interface ElementCode {
+
+        double at(Frame frame, int i);
+    }
+
+    /**
+     * State of one evaluation: the arguments and the values of scalar
+     * subexpressions hoisted out of element-wise loops.
+     */
+    static final class Frame {
+
+        Vector value;
+        Vector addend;
+        int numDimensions;
+        double[] scalars;
+        final double[] slots;
+
+        Frame(int numSlots) {
+            this.slots = new double[numSlots];
+        }
+
+        double response(int i) {
+            return addend == null ? value.getValue(i) : value.getValue(i) + addend.getValue(i);
+        }
+    }
+
+    private final String source;
+    private final ScalarCode code;
+    private final int numSlots;
+    private final Set<String> variables;
+    private final ThreadLocal<Frame> frames;
+
+    CompiledExpression(String source, ScalarCode code, int numSlots, Set<String> variables) {
+        this.source = source;
+        this.code = code;
+        this.numSlots = numSlots;
+        this.variables = Collections.unmodifiableSet(variables);
+        this.frames = ThreadLocal.withInitial(() -> new Frame(this.numSlots));
+    }
+
+    /**
+     * Evaluates an expression without scalar variables.
+     * @param value the response, or <code>null</code> if the expression has none
+     * @param addend added to the response, or <code>null</code>
+     * @return the value of the expression for the response <code>value + addend</code>
+     */
+    public double evaluate(Vector value, Vector addend) {
+        return evaluate(value, addend, null);
+    }
+
+    /**
+     * @param value the response, or <code>null</code> if the expression has none
+     * @param addend added to the response, or <code>null</code>
+     * @param scalars values of the scalar variables in the order of their declaration, only read during the call
+     * @return the value of the expression
+     */
+    public double evaluate(Vector value, Vector addend, double[] scalars) {
+        Frame frame = frames.get();
+        frame.value = value;
+        frame.addend = addend;
+        frame.numDimensions = value == null ? 0 : value.getNumDimensions();
+        frame.scalars = scalars;
+        double result = code.eval(frame);
+        frame.value = null;
+        frame.addend = null;
+        frame.scalars = null;
+        return result;
+    }
+
+    /**
+     * @param variable name of a variable
+     * @return <code>true</code> if the expression refers to the variable
+     */
+    public boolean uses(String variable) {
+        return variables.contains(variable);
+    }
+
+    /**
+     * @return the names of all variables the expression refers to
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,627 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import data.Vector;
+import func.expression.CompiledExpression.ElementCode;
+import func.expression.CompiledExpression.Frame;
+import func.expression.CompiledExpression.ScalarCode;
+
+/**
+ * Compiles expressions over vectors and scalars, e.g.
+ * <code>sum((x - goal)^2)</code> or <code>(1 - alpha - beta) * cost + alpha * unfairness</code>.
+ *
+ * The compiler declares the variables an expression may use:
+ * <ul>
+ * <li>the response, a vector passed to every evaluation, together with its
+ * number of dimensions <code>n</code>,</li>
+ * <li>scalars passed to every evaluation,</li>
+ * <li>constant vectors, e.g. the goal signal, obtained once at compile time.</li>
+ * </ul>
+ * Operators <code>+ - * / ^</code> and the functions <code>sqrt, abs, exp, log,
+ * pow, min, max</code> (the latter two with two arguments) apply element-wise
+ * if any operand is a vector, scalars being broadcast. The reductions
+ * <code>sum, mean, var, std, norm, min, max</code> (with one argument) and
+ * <code>dot</code> turn vectors into scalars. A variable may also be written
+ * as a call without arguments, e.g. <code>goal()</code>. The expression itself
+ * must be a scalar.
+ *
+ * The compiled code evaluates every reduction in a single loop over its
+ * element-wise argument, without creating intermediate vectors. Scalars used
+ * inside such a loop, e.g. the mean in <code>sum((x - mean(x))^2)</code>, are
+ * computed once before it. Subexpressions that depend on nothing but
+ * constants, e.g. <code>goal - mean(goal)</code>, are computed at compile time.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class ExpressionCompiler {
+
+    private enum Kind {
+        RESPONSE, LENGTH, SCALAR, CONSTANT
+    }
+
+    private enum Type {
+        SCALAR, VECTOR
+    }
+
+    private static final class Binding {
+
+        final Kind kind;
+        final int index;
+        final Supplier<Vector> constant;
+
+        Binding(Kind kind, int index, Supplier<Vector> constant) {
+            this.kind = kind;
+            this.index = index;
+            this.constant = constant;
+        }
+    }
+
+    private final Map<String, Binding> bindings = new LinkedHashMap<>();
+    private int numScalars = 0;
+
+    /**
+     * Declares the response vector, and its number of dimensions as <code>n</code>.
+     * @param name name of the response, e.g. <code>x</code>
+     * @return this compiler
+     */
+    public ExpressionCompiler withResponse(String name) {
+        declare(name, new Binding(Kind.RESPONSE, -1, null));
+        declare("n", new Binding(Kind.LENGTH, -1, null));
+        return this;
+    }
+
+    /**
+     * Declares a scalar variable. Scalars are passed to
+     * {@link CompiledExpression#evaluate(Vector, Vector, double[])} in the order of their declaration.
+     * @param name name of the scalar
+     * @return this compiler
+     */
+    public ExpressionCompiler withScalar(String name) {
+        declare(name, new Binding(Kind.SCALAR, numScalars++, null));
+        return this;
+    }
+
+    /**
+     * Declares a constant vector. It is obtained when an expression that uses it is compiled.
+     * @param name name of the vector
+     * @param value supplies the vector
+     * @return this compiler
+     */
+    public ExpressionCompiler withConstant(String name, Supplier<Vector> value) {
+        declare(name, new Binding(Kind.CONSTANT, -1, value));
+        return this;
+    }
+
+    private void declare(String name, Binding binding) {
+        if (bindings.containsKey(name)) {
+            throw new IllegalArgumentException("Variable " + name + " is declared twice");
+        }
+        bindings.put(name, binding);
+    }
+
+    /**
+     * @param source the expression
+     * @return the compiled expression
+     * @throws IllegalArgumentException if the expression is malformed, refers to
+     * unknown variables or functions, or is not a scalar
+     */
+    public CompiledExpression compile(String source) {
+        return new Compilation(source).compile();
+    }
+
+    private static final class Hoisted {
+
+        final int slot;
+        final ScalarCode code;
+
+        Hoisted(int slot, ScalarCode code) {
+            this.slot = slot;
+            this.code = code;
+        }
+    }
+
+    /**
+     * State of compiling one expression.
+     */
+    private final class Compilation {
+
+        private final String source;
+        private final Set<String> variables = new LinkedHashSet<>();
+        private final Map<Binding, double[]> constants = new HashMap<>();
+        private int numSlots = 0;
+        private boolean folding = false;
+
+        Compilation(String source) {
+            this.source = source;
+        }
+
+        CompiledExpression compile() {
+            Node root = ExpressionParser.parse(source);
+            if (type(root) != Type.SCALAR) {
+                throw ExpressionParser.error(source, 0, "the expression must be a scalar");
+            }
+            ScalarCode code = scalar(root);
+            int defaultDimensions = constantLength(root);
+            if (defaultDimensions > 0 && !uses(Kind.RESPONSE)) {
+                // reductions over constants and scalars run over the length of the constants
+                ScalarCode inner = code;
+                code = frame -> {
+                    frame.numDimensions = defaultDimensions;
+                    return inner.eval(frame);
+                };
+            }
+            return new CompiledExpression(source, code, numSlots, variables);
+        }
+
+        private boolean uses(Kind kind) {
+            for (String name : variables) {
+                if (bindings.get(name).kind == kind) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the name of the variable if the node is a variable or a call of a variable without arguments, otherwise <code>null</code>
+         */
+        private String variable(Node node) {
+            if (node instanceof Node.Variable) {
+                return ((Node.Variable) node).name;
+            }
+            if (node instanceof Node.Call) {
+                Node.Call call = (Node.Call) node;
+                if (call.arguments.isEmpty() && bindings.containsKey(call.function)) {
+                    return call.function;
+                }
+            }
+            return null;
+        }
+
+        private Binding binding(Node node, String name) {
+            Binding binding = bindings.get(name);
+            if (binding == null) {
+                throw ExpressionParser.error(source, node.position, "unknown variable '" + name + "'");
+            }
+            variables.add(name);
+            return binding;
+        }
+
+        private Type type(Node node) {
+            String name = variable(node);
+            if (name != null) {
+                Kind kind = binding(node, name).kind;
+                return kind == Kind.RESPONSE || kind == Kind.CONSTANT ? Type.VECTOR : Type.SCALAR;
+            }
+            if (node instanceof Node.Constant) {
+                return Type.SCALAR;
+            }
+            if (node instanceof Node.Negate) {
+                return type(((Node.Negate) node).operand);
+            }
+            if (node instanceof Node.Binary) {
+                Node.Binary binary = (Node.Binary) node;
+                return either(type(binary.left), type(binary.right));
+            }
+            Node.Call call = (Node.Call) node;
+            List<Node> arguments = call.arguments;
+            switch (call.function) {
+                case "sum":
+                case "mean":
+                case "var":
+                case "std":
+                case "norm":
+                    arity(call, 1);
+                    vector(call, arguments.get(0));
+                    return Type.SCALAR;
+                case "dot":
+                    arity(call, 2);
+                    vector(call, arguments.get(0));
+                    vector(call, arguments.get(1));
+                    return Type.SCALAR;
+                case "min":
+                case "max":
+                    if (arguments.size() == 1) {
+                        vector(call, arguments.get(0));
+                        return Type.SCALAR;
+                    }
+                    arity(call, 2);
+                    return either(type(arguments.get(0)), type(arguments.get(1)));
+                case "sqrt":
+                case "abs":
+                case "exp":
+                case "log":
+                    arity(call, 1);
+                    return type(arguments.get(0));
+                case "pow":
+                    arity(call, 2);
+                    return either(type(arguments.get(0)), type(arguments.get(1)));
+                default:
+                    throw ExpressionParser.error(source, call.position, "unknown function '" + call.function + "'");
+            }
+        }
+
+        private Type either(Type left, Type right) {
+            return left == Type.VECTOR || right == Type.VECTOR ? Type.VECTOR : Type.SCALAR;
+        }
+
+        private void arity(Node.Call call, int numArguments) {
+            if (call.arguments.size() != numArguments) {
+                throw ExpressionParser.error(source, call.position, call.function + " expects " + numArguments + " argument(s)");
+            }
+        }
+
+        private void vector(Node.Call call, Node argument) {
+            if (type(argument) != Type.VECTOR) {
+                throw ExpressionParser.error(source, argument.position, call.function + " expects a vector");
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the value of the node depends on the arguments of an evaluation
+         */
+        private boolean isDynamic(Node node) {
+            String name = variable(node);
+            if (name != null) {
+                return binding(node, name).kind != Kind.CONSTANT;
+            }
+            if (node instanceof Node.Constant) {
+                return false;
+            }
+            if (node instanceof Node.Negate) {
+                return isDynamic(((Node.Negate) node).operand);
+            }
+            if (node instanceof Node.Binary) {
+                Node.Binary binary = (Node.Binary) node;
+                return isDynamic(binary.left) || isDynamic(binary.right);
+            }
+            for (Node argument : ((Node.Call) node).arguments) {
+                if (isDynamic(argument)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the length of the first constant vector in the node, 0 if there is none
+         */
+        private int constantLength(Node node) {
+            String name = variable(node);
+            if (name != null) {
+                Binding binding = binding(node, name);
+                return binding.kind == Kind.CONSTANT ? constant(binding).length : 0;
+            }
+            List<Node> children = new ArrayList<>();
+            if (node instanceof Node.Negate) {
+                children.add(((Node.Negate) node).operand);
+            } else if (node instanceof Node.Binary) {
+                children.add(((Node.Binary) node).left);
+                children.add(((Node.Binary) node).right);
+            } else if (node instanceof Node.Call) {
+                children.addAll(((Node.Call) node).arguments);
+            }
+            for (Node child : children) {
+                int length = constantLength(child);
+                if (length > 0) {
+                    return length;
+                }
+            }
+            return 0;
+        }
+
+        private double[] constant(Binding binding) {
+            return constants.computeIfAbsent(binding, b -> {
+                Vector vector = b.constant.get();
+                double[] values = new double[vector.getNumDimensions()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = vector.getValue(i);
+                }
+                return values;
+            });
+        }
+
+        private double foldScalar(Node node) {
+            boolean outer = folding;
+            folding = true;
+            ScalarCode code = scalar(node);
+            folding = outer;
+            Frame frame = new Frame(numSlots);
+            frame.numDimensions = constantLength(node);
+            return code.eval(frame);
+        }
+
+        private double[] foldVector(Node node) {
+            boolean outer = folding;
+            folding = true;
+            List<Hoisted> prelude = new ArrayList<>();
+            ElementCode code = element(node, prelude);
+            folding = outer;
+            Frame frame = new Frame(numSlots);
+            frame.numDimensions = constantLength(node);
+            for (Hoisted hoisted : prelude) {
+                frame.slots[hoisted.slot] = hoisted.code.eval(frame);
+            }
+            double[] values = new double[frame.numDimensions];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = code.at(frame, i);
+            }
+            return values;
+        }
+
+        /**
+         * @param node a node of scalar type
+         */
+        private ScalarCode scalar(Node node) {
+            if (!folding && !isDynamic(node)) {
+                double value = foldScalar(node);
+                return frame -> value;
+            }
+            String name = variable(node);
+            if (name != null) {
+                Binding binding = binding(node, name);
+                if (binding.kind == Kind.LENGTH) {
+                    return frame -> frame.numDimensions;
+                }
+                int index = binding.index;
+                return frame -> frame.scalars[index];
+            }
+            if (node instanceof Node.Constant) {
+                double value = ((Node.Constant) node).value;
+                return frame -> value;
+            }
+            if (node instanceof Node.Negate) {
+                ScalarCode operand = scalar(((Node.Negate) node).operand);
+                return frame -> -operand.eval(frame);
+            }
+            if (node instanceof Node.Binary) {
+                Node.Binary binary = (Node.Binary) node;
+                ScalarCode left = scalar(binary.left);
+                if (isSquare(binary)) {
+                    return frame -> {
+                        double value = left.eval(frame);
+                        return value * value;
+                    };
+                }
+                ScalarCode right = scalar(binary.right);
+                switch (binary.operator) {
+                    case '+':
+                        return frame -> left.eval(frame) + right.eval(frame);
+                    case '-':
+                        return frame -> left.eval(frame) - right.eval(frame);
+                    case '*':
+                        return frame -> left.eval(frame) * right.eval(frame);
+                    case '/':
+                        return frame -> left.eval(frame) / right.eval(frame);
+                    default:
+                        return frame -> Math.pow(left.eval(frame), right.eval(frame));
+                }
+            }
+            Node.Call call = (Node.Call) node;
+            List<Node> arguments = call.arguments;
+            switch (call.function) {
+                case "sum":
+                case "mean":
+                    return reduction(call.function, arguments.get(0));
+                case "min":
+                case "max":
+                    if (arguments.size() == 1) {
+                        return reduction(call.function, arguments.get(0));
+                    }
+                    break;
+                case "var": {
+                    // mean((e - mean(e))^2), the mean of e being computed before the loop
+                    Node argument = arguments.get(0);
+                    Node deviation = new Node.Binary(call.position, '-', argument, new Node.Call(call.position, "mean", Arrays.asList(argument)));
+                    return reduction("mean", new Node.Binary(call.position, '^', deviation, new Node.Constant(call.position, 2)));
+                }
+                case "std": {
+                    ScalarCode variance = scalar(new Node.Call(call.position, "var", arguments));
+                    return frame -> Math.sqrt(variance.eval(frame));
+                }
+                case "norm": {
+                    Node square = new Node.Binary(call.position, '^', arguments.get(0), new Node.Constant(call.position, 2));
+                    ScalarCode sum = reduction("sum", square);
+                    return frame -> Math.sqrt(sum.eval(frame));
+                }
+                case "dot":
+                    return reduction("sum", new Node.Binary(call.position, '*', arguments.get(0), arguments.get(1)));
+                default:
+                    break;
+            }
+            ScalarCode first = scalar(arguments.get(0));
+            switch (call.function) {
+                case "sqrt":
+                    return frame -> Math.sqrt(first.eval(frame));
+                case "abs":
+                    return frame -> Math.abs(first.eval(frame));
+                case "exp":
+                    return frame -> Math.exp(first.eval(frame));
+                case "log":
+                    return frame -> Math.log(first.eval(frame));
+                default:
+                    break;
+            }
+            ScalarCode second = scalar(arguments.get(1));
+            switch (call.function) {
+                case "min":
+                    return frame -> Math.min(first.eval(frame), second.eval(frame));
+                case "max":
+                    return frame -> Math.max(first.eval(frame), second.eval(frame));
+                default:
+                    return frame -> Math.pow(first.eval(frame), second.eval(frame));
+            }
+        }
+
+        /**
+         * A single loop over the element-wise argument, preceded by the scalars hoisted out of it.
+         */
+        private ScalarCode reduction(String function, Node argument) {
+            List<Hoisted> prelude = new ArrayList<>();
+            ElementCode element = element(argument, prelude);
+            int[] slots = new int[prelude.size()];
+            ScalarCode[] codes = new ScalarCode[prelude.size()];
+            for (int k = 0; k < slots.length; k++) {
+                slots[k] = prelude.get(k).slot;
+                codes[k] = prelude.get(k).code;
+            }
+            switch (function) {
+                case "sum":
+                    return frame -> {
+                        hoist(frame, slots, codes);
+                        double sum = 0.0;
+                        for (int i = 0; i < frame.numDimensions; i++) {
+                            sum += element.at(frame, i);
+                        }
+                        return sum;
+                    };
+                case "mean":
+                    return frame -> {
+                        hoist(frame, slots, codes);
+                        double sum = 0.0;
+                        for (int i = 0; i < frame.numDimensions; i++) {
+                            sum += element.at(frame, i);
+                        }
+                        return sum / frame.numDimensions;
+                    };
+                case "min":
+                    return frame -> {
+                        hoist(frame, slots, codes);
+                        double min = Double.POSITIVE_INFINITY;
+                        for (int i = 0; i < frame.numDimensions; i++) {
+                            min = Math.min(min, element.at(frame, i));
+                        }
+                        return min;
+                    };
+                default:
+                    return frame -> {
+                        hoist(frame, slots, codes);
+                        double max = Double.NEGATIVE_INFINITY;
+                        for (int i = 0; i < frame.numDimensions; i++) {
+                            max = Math.max(max, element.at(frame, i));
+                        }
+                        return max;
+                    };
+            }
+        }
+
+        /**
+         * @param node a node of any type, evaluated in an element-wise context
+         * @param prelude receives the scalars to compute before the loop
+         */
+        private ElementCode element(Node node, List<Hoisted> prelude) {
+            if (type(node) == Type.SCALAR) {
+                if (!folding && !isDynamic(node)) {
+                    double value = foldScalar(node);
+                    return (frame, i) -> value;
+                }
+                if (node instanceof Node.Constant) {
+                    double value = ((Node.Constant) node).value;
+                    return (frame, i) -> value;
+                }
+                int slot = numSlots++;
+                prelude.add(new Hoisted(slot, scalar(node)));
+                return (frame, i) -> frame.slots[slot];
+            }
+            if (!folding && !isDynamic(node)) {
+                double[] values = foldVector(node);
+                return (frame, i) -> values[i];
+            }
+            String name = variable(node);
+            if (name != null) {
+                Binding binding = binding(node, name);
+                if (binding.kind == Kind.RESPONSE) {
+                    return (frame, i) -> frame.response(i);
+                }
+                double[] values = constant(binding);
+                return (frame, i) -> values[i];
+            }
+            if (node instanceof Node.Negate) {
+                ElementCode operand = element(((Node.Negate) node).operand, prelude);
+                return (frame, i) -> -operand.at(frame, i);
+            }
+            if (node instanceof Node.Binary) {
+                Node.Binary binary = (Node.Binary) node;
+                ElementCode left = element(binary.left, prelude);
+                if (isSquare(binary)) {
+                    return (frame, i) -> {
+                        double value = left.at(frame, i);
+                        return value * value;
+                    };
+                }
+                ElementCode right = element(binary.right, prelude);
+                switch (binary.operator) {
+                    case '+':
+                        return (frame, i) -> left.at(frame, i) + right.at(frame, i);
+                    case '-':
+                        return (frame, i) -> left.at(frame, i) - right.at(frame, i);
+                    case '*':
+                        return (frame, i) -> left.at(frame, i) * right.at(frame, i);
+                    case '/':
+                        return (frame, i) -> left.at(frame, i) / right.at(frame, i);
+                    default:
+                        return (frame, i) -> Math.pow(left.at(frame, i), right.at(frame, i));
+                }
+            }
+            Node.Call call = (Node.Call) node;
+            ElementCode first = element(call.arguments.get(0), prelude);
+            switch (call.function) {
+                case "sqrt":
+                    return (frame, i) -> Math.sqrt(first.at(frame, i));
+                case "abs":
+                    return (frame, i) -> Math.abs(first.at(frame, i));
+                case "exp":
+                    return (frame, i) -> Math.exp(first.at(frame, i));
+                case "log":
+                    return (frame, i) -> Math.log(first.at(frame, i));
+                default:
+                    break;
+            }
+            ElementCode second = element(call.arguments.get(1), prelude);
+            switch (call.function) {
+                case "min":
+                    return (frame, i) -> Math.min(first.at(frame, i), second.at(frame, i));
+                case "max":
+                    return (frame, i) -> Math.max(first.at(frame, i), second.at(frame, i));
+                default:
+                    return (frame, i) -> Math.pow(first.at(frame, i), second.at(frame, i));
+            }
+        }
+
+        private boolean isSquare(Node.Binary binary) {
+            return binary.operator == '^' && binary.right instanceof Node.Constant && ((Node.Constant) binary.right).value == 2;
+        }
+    }
+
+    private static void hoist(Frame frame, int[] slots, ScalarCode[] codes) {
+        for (int k = 0; k < slots.length; k++) {
+            frame.slots[slots[k]] = codes[k].eval(frame);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import config.Configuration;
+import data.Vector;
+import func.DifferentiableCostFunction;
+import func.goalsignals.MemoizedGoalSignal;
+
+/**
+ * Global cost function given by an expression over the response <code>x</code>,
+ * its number of dimensions <code>n</code> and the goal signal <code>goal</code>,
+ * e.g. <code>sum((x - goal)^2)</code>. The goal signal is the one configured
+ * when the expression is compiled.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class ExpressionCostFunction extends DifferentiableCostFunction<Vector> {
+
+    private final CompiledExpression expression;
+
+    /**
+     * @param source the expression
+     * @throws IllegalArgumentException if the expression cannot be compiled
+     */
+    public ExpressionCostFunction(String source) {
+        this.expression = new ExpressionCompiler()
+                .withResponse("x")
+                .withConstant("goal", () -> MemoizedGoalSignal.prepare(Configuration.goalSignalSupplier).getSignal())
+                .compile(source);
+    }
+
+    @Override
+    public double calcCost(Vector value) {
+        return expression.evaluate(value, null);
+    }
+
+    /**
+     * Same as {@link #calcCost(Vector)} applied to <code>constant + candidate</code>,
+     * but the sum is not materialized.
+     */
+    @Override
+    public double calcCostOfSum(Vector constant, Vector candidate) {
+        return expression.evaluate(constant, candidate);
+    }
+
+    @Override
+    public Vector calcGradient(Vector value) {
+        return DifferentiableCostFunction.numericalGradient(this, value);
+    }
+
+    @Override
+    public String toString() {
+        return "expression " + expression.getSource();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser of the expression language:
+ * <pre>
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/') unary)*
+ * unary      := '-' unary | power
+ * power      := primary ('^' unary)?
+ * primary    := number | name | name '(' (expression (',' expression)*)? ')' | '(' expression ')'
+ * </pre>
+ * <code>^</code> is right-associative and binds tighter than unary minus,
+ * so <code>-x^2</code> is <code>-(x^2)</code>.
+ *
+ * @author Peter P. & Jovan N.
+ */
+final class ExpressionParser {
+
+    private final String source;
+    private int position = 0;
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param source the expression
+     * @return syntax tree of the expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    static Node parse(String source) {
+        ExpressionParser parser = new ExpressionParser(source);
+        Node node = parser.expression();
+        parser.skipWhitespace();
+        if (parser.position < source.length()) {
+            throw parser.error("unexpected '" + source.charAt(parser.position) + "'");
+        }
+        return node;
+    }
+
+    private Node expression() {
+        Node node = term();
+        while (true) {
+            int start = position;
+            if (accept('+')) {
+                node = new Node.Binary(start, '+', node, term());
+            } else if (accept('-')) {
+                node = new Node.Binary(start, '-', node, term());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node term() {
+        Node node = unary();
+        while (true) {
+            int start = position;
+            if (accept('*')) {
+                node = new Node.Binary(start, '*', node, unary());
+            } else if (accept('/')) {
+                node = new Node.Binary(start, '/', node, unary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node unary() {
+        int start = position;
+        if (accept('-')) {
+            return new Node.Negate(start, unary());
+        }
+        return power();
+    }
+
+    private Node power() {
+        Node node = primary();
+        int start = position;
+        if (accept('^')) {
+            return new Node.Binary(start, '^', node, unary());
+        }
+        return node;
+    }
+
+    private Node primary() {
+        skipWhitespace();
+        int start = position;
+        if (accept('(')) {
+            Node node = expression();
+            expect(')');
+            return node;
+        }
+        if (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            return number();
+        }
+        if (position < source.length() && Character.isJavaIdentifierStart(source.charAt(position))) {
+            while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+                position++;
+            }
+            String name = source.substring(start, position);
+            if (!accept('(')) {
+                return new Node.Variable(start, name);
+            }
+            List<Node> arguments = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    arguments.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            return new Node.Call(start, name, arguments);
+        }
+        throw error(position < source.length() ? "unexpected '" + source.charAt(position) + "'" : "unexpected end of expression");
+    }
+
+    private Node number() {
+        int start = position;
+        while (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            position++;
+            if (position < source.length() && (source.charAt(position) == '+' || source.charAt(position) == '-')) {
+                position++;
+            }
+            while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                position++;
+            }
+        }
+        String text = source.substring(start, position);
+        try {
+            return new Node.Constant(start, Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("malformed number '" + text + "'");
+        }
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("expected '" + c + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return ExpressionParser.error(source, position, message);
+    }
+
+    static IllegalArgumentException error(String source, int position, String message) {
+        return new IllegalArgumentException(message + " at position " + position + " of expression: " + source);
+    }
+}
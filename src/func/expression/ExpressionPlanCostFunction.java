@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import data.Plan;
+import data.Vector;
+import func.PlanCostFunction;
+
+/**
+ * Local cost function given by an expression over the plan value <code>x</code>,
+ * its number of dimensions <code>n</code>, the plan <code>score</code> and the
+ * plan <code>index</code>, e.g. <code>score + 0.1 * std(x)</code>.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class ExpressionPlanCostFunction implements PlanCostFunction<Vector> {
+
+    private final CompiledExpression expression;
+
+    /**
+     * @param source the expression
+     * @throws IllegalArgumentException if the expression cannot be compiled
+     */
+    public ExpressionPlanCostFunction(String source) {
+        this.expression = new ExpressionCompiler()
+                .withResponse("x")
+                .withScalar("score")
+                .withScalar("index")
+                .compile(source);
+    }
+
+    @Override
+    public double calcCost(Plan<Vector> plan) {
+        double score = Double.isNaN(plan.getScore()) ? 0.0 : plan.getScore();
+        return expression.evaluate(plan.getValue(), null, new double[]{score, plan.getIndex()});
+    }
+
+    @Override
+    public String toString() {
+        return "expression " + expression.getSource();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func.expression;
+
+import java.util.List;
+
+/**
+ * Syntax tree of an expression, as produced by {@link ExpressionParser}.
+ *
+ * @author Peter P. & Jovan N.
+ */
+abstract class Node {
+
+    /**
+     * position of the node in the source, for error messages
+     */
+    final int position;
+
+    Node(int position) {
+        this.position = position;
+    }
+
+    static final class Constant extends Node {
+
+        final double value;
+
+        Constant(int position, double value) {
+            super(position);
+            this.value = value;
+        }
+    }
+
+    static final class Variable extends Node {
+
+        final String name;
+
+        Variable(int position, String name) {
+            super(position);
+            this.name = name;
+        }
+    }
+
+    static final class Call extends Node {
+
+        final String function;
+        final List<Node> arguments;
+
+        Call(int position, String function, List<Node> arguments) {
+            super(position);
+            this.function = function;
+            this.arguments = arguments;
+        }
+    }
+
+    static final class Binary extends Node {
+
+        final char operator;
+        final Node left;
+        final Node right;
+
+        Binary(int position, char operator, Node left, Node right) {
+            super(position);
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    static final class Negate extends Node {
+
+        final Node operand;
+
+        Negate(int position, Node operand) {
+            super(position);
+            this.operand = operand;
+        }
+    }
+}
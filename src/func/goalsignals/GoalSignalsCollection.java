@@ -13,6 +13,9 @@ import data.Vector;
 /**
  * This class is a collection of static methods that generate goal signal
  * 
+ * Every goal signal is a {@link MemoizedGoalSignal}: it is generated once per
+ * dimensionality and then served from the cache.
+ * 
  * @author jovan
  *
  */
@@ -22,39 +25,39 @@ public class GoalSignalsCollection {
 	 * Sine function with amplitude 100 and offset 0
 	 * 
 	 */	
-	public static Supplier<Vector> sine_a100_o0 = () -> {
+	public static Supplier<Vector> sine_a100_o0 = new MemoizedGoalSignal("sine_a100_o0", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i,0 + 100*Math.sin(i * Math.PI / 45)));
 		return newvector;
-	};
+	});
 	
 	
 	/**
 	 * Sine function with amplitude 100 and offset 500
 	 */
-	public static Supplier<Vector> sine_a100_o500 = () -> {		
+	public static Supplier<Vector> sine_a100_o500 = new MemoizedGoalSignal("sine_a100_o500", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i,500 + 100*Math.sin(i * Math.PI / 45)));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Sine function with amplitude 1000 and offset 200
 	 */
-	public static Supplier<Vector> sine_a200_o1000 = () -> {	
+	public static Supplier<Vector> sine_a200_o1000 = new MemoizedGoalSignal("sine_a200_o1000", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i,1000 + 200*Math.sin(i * Math.PI / 45)));
 		return newvector;		
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 100.
 	 * Left quarter is 0, right quarter is 0, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a100 = () -> {
+	public static Supplier<Vector> singleImpulse_a100 = new MemoizedGoalSignal("singleImpulse_a100", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -64,13 +67,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 0));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 500.
 	 * Left quarter is 0, right quarter is 0, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a500 = () -> {
+	public static Supplier<Vector> singleImpulse_a500 = new MemoizedGoalSignal("singleImpulse_a500", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -80,13 +83,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 0));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 1000.
 	 * Left quarter is 0, right quarter is 0, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a1000 = () -> {
+	public static Supplier<Vector> singleImpulse_a1000 = new MemoizedGoalSignal("singleImpulse_a1000", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -96,14 +99,14 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 0));
 		return newvector;
-	};
+	});
 	
 	
 	/**
 	 * Single impulse function with amplitude 100.
 	 * Left quarter is 50, right quarter is 50, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a100_b50 = () -> {
+	public static Supplier<Vector> singleImpulse_a100_b50 = new MemoizedGoalSignal("singleImpulse_a100_b50", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -113,13 +116,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 50));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 500.
 	 * Left quarter is 250, right quarter is 250, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a500_b250 = () -> {
+	public static Supplier<Vector> singleImpulse_a500_b250 = new MemoizedGoalSignal("singleImpulse_a500_b250", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -129,13 +132,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 250));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 1000.
 	 * Left quarter is 500, right quarter is 500, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a1000_b500 = () -> {
+	public static Supplier<Vector> singleImpulse_a1000_b500 = new MemoizedGoalSignal("singleImpulse_a1000_b500", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -145,13 +148,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 500));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Single impulse function with amplitude 2000.
 	 * Left quarter is 1000, right quarter is 1000, middle half is equal to amplitude value
 	 */
-	public static Supplier<Vector> singleImpulse_a2000_b1000 = () -> {
+	public static Supplier<Vector> singleImpulse_a2000_b1000 = new MemoizedGoalSignal("singleImpulse_a2000_b1000", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int quarter = (int)Configuration.numDimensions/4;		
 		IntStream.range(0, quarter).
@@ -161,13 +164,13 @@ public class GoalSignalsCollection {
 		IntStream.range(Configuration.numDimensions-quarter, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 1000));
 		return newvector;
-	};
+	});
 	
 	
 	/**
 	 * Monotonous linear step-like decrease from 400 to 50
 	 */
-	public static Supplier<Vector> monotonousDecrease_400_50 = () -> {
+	public static Supplier<Vector> monotonousDecrease_400_50 = new MemoizedGoalSignal("monotonousDecrease_400_50", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int eight = (int)Configuration.numDimensions/8;	
 		int batch_size = 50;
@@ -183,12 +186,12 @@ public class GoalSignalsCollection {
 			}			
 		}
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonous linear step-like decrease from 400 to 50
 	 */
-	public static Supplier<Vector> monotonousDecrease_800_100 = () -> {
+	public static Supplier<Vector> monotonousDecrease_800_100 = new MemoizedGoalSignal("monotonousDecrease_800_100", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int eight = (int)Configuration.numDimensions/8;	
 		int batch_size = 100;
@@ -204,12 +207,12 @@ public class GoalSignalsCollection {
 			}			
 		}
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonous linear step-like decrease from 400 to 50
 	 */
-	public static Supplier<Vector> monotonousDecrease_1600_200 = () -> {
+	public static Supplier<Vector> monotonousDecrease_1600_200 = new MemoizedGoalSignal("monotonousDecrease_1600_200", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int eight = (int)Configuration.numDimensions/8;	
 		int batch_size = 200;
@@ -225,13 +228,13 @@ public class GoalSignalsCollection {
 			}			
 		}
 		return newvector;
-	};
+	});
 	
 	
 	/**
 	 * Monotonously increasing function from -10 to 10
 	 */
-	public static Supplier<Vector> monotonousIncrease_m10_10 = () -> {
+	public static Supplier<Vector> monotonousIncrease_m10_10 = new MemoizedGoalSignal("monotonousIncrease_m10_10", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int half = (int)Configuration.numDimensions/2;		
 		IntStream.range(0, half).
@@ -239,12 +242,12 @@ public class GoalSignalsCollection {
 		IntStream.range(half, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 10));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonously increasing function from -100 to 100
 	 */
-	public static Supplier<Vector> monotonousIncrease_m100_100 = () -> {
+	public static Supplier<Vector> monotonousIncrease_m100_100 = new MemoizedGoalSignal("monotonousIncrease_m100_100", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int half = (int)Configuration.numDimensions/2;		
 		IntStream.range(0, half).
@@ -252,12 +255,12 @@ public class GoalSignalsCollection {
 		IntStream.range(half, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 100));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonously increasing function from 150 to 250
 	 */
-	public static Supplier<Vector> monotonousIncrease_150_250 = () -> {
+	public static Supplier<Vector> monotonousIncrease_150_250 = new MemoizedGoalSignal("monotonousIncrease_150_250", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int half = (int)Configuration.numDimensions/2;		
 		IntStream.range(0, half).
@@ -265,12 +268,12 @@ public class GoalSignalsCollection {
 		IntStream.range(half, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 250));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonously increasing function from 1300 to 1500
 	 */
-	public static Supplier<Vector> monotonousIncrease_1300_1500 = () -> {
+	public static Supplier<Vector> monotonousIncrease_1300_1500 = new MemoizedGoalSignal("monotonousIncrease_1300_1500", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int half = (int)Configuration.numDimensions/2;		
 		IntStream.range(0, half).
@@ -278,12 +281,12 @@ public class GoalSignalsCollection {
 		IntStream.range(half, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 1500));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Monotonously increasing function from 8 to 10
 	 */
-	public static Supplier<Vector> monotonousIncrease_8_10 = () -> {
+	public static Supplier<Vector> monotonousIncrease_8_10 = new MemoizedGoalSignal("monotonousIncrease_8_10", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		int half = (int)Configuration.numDimensions/2;		
 		IntStream.range(0, half).
@@ -291,12 +294,12 @@ public class GoalSignalsCollection {
 		IntStream.range(half, Configuration.numDimensions).
 			forEach(i -> newvector.setValue(i, 10));
 		return newvector;
-	};
+	});
 	
 	/**
 	 * 2 single impulses, one twice as big as the other one.
 	 */
-	public static Supplier<Vector> camelImpulse_50_100 = () -> {
+	public static Supplier<Vector> camelImpulse_50_100 = new MemoizedGoalSignal("camelImpulse_50_100", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		
 		int five = (int)Configuration.numDimensions/5;
@@ -313,12 +316,12 @@ public class GoalSignalsCollection {
 			forEach(i -> newvector.setValue(i, 0));
 		
 		return newvector;
-	};
+	});
 	
 	/**
 	 * 2 single gaussian impulses
 	 */
-	public static Supplier<Vector> gaussian_mixture_impulse = () -> {
+	public static Supplier<Vector> gaussian_mixture_impulse = new MemoizedGoalSignal("gaussian_mixture_impulse", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		double mean_1 = 30;
 		double mean_2 = 75;
@@ -332,24 +335,24 @@ public class GoalSignalsCollection {
 			newvector.setValue(i, value_1 + value_2);
 		});
 		return newvector;
-	};
+	});
 	
 	/**
 	 * constant to a reasonable value
 	 */
-	public static Supplier<Vector> constant_signal = () -> {
+	public static Supplier<Vector> constant_signal = new MemoizedGoalSignal("constant_signal", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		double constant = 5;
 		IntStream.range(0, Configuration.numDimensions).forEach(i -> {
 			newvector.setValue(i, constant);
 		});
 		return newvector;
-	};
+	});
 	
 	/**
 	 * This goal signal will be applied in frequency domain.
 	 */
-	public static Supplier<Vector> frequencyGoal = () -> {
+	public static Supplier<Vector> frequencyGoal = new MemoizedGoalSignal("frequencyGoal", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).forEach(i -> {
 			if(i == 3) {
@@ -361,28 +364,28 @@ public class GoalSignalsCollection {
 			}
 		});
 		return newvector;
-	};
+	});
 	
-	public static Supplier<Vector> upperBound = () -> {
+	public static Supplier<Vector> upperBound = new MemoizedGoalSignal("upperBound", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).forEach(i -> {
 			newvector.setValue(i, 10e6);
 		});
 		return newvector;
-	};
+	});
 	
-	public static Supplier<Vector> lowerBound = () -> {
+	public static Supplier<Vector> lowerBound = new MemoizedGoalSignal("lowerBound", () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		IntStream.range(0, Configuration.numDimensions).forEach(i -> {
 			newvector.setValue(i, -1);
 		});
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Reads goal signal from a file. 
 	 */
-	public static Supplier<Vector> fromFile = () -> {
+	public static Supplier<Vector> fromFile = new MemoizedGoalSignal("fromFile", Configuration::getGoalSignalPath, () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		File file = new File(Configuration.getGoalSignalPath());
 		try (Scanner scanner = new Scanner(file)) {
@@ -405,12 +408,12 @@ public class GoalSignalsCollection {
 			System.err.println("MEANS NOT EQUAL: before = " + mean + ", after: " + newmean);
 		}
 		return newvector;
-	};
+	});
 	
 	/**
 	 * Reads goal signal from a file. 
 	 */
-	public static Supplier<Vector> fromOnelinerFile = () -> {
+	public static Supplier<Vector> fromOnelinerFile = new MemoizedGoalSignal("fromOnelinerFile", Configuration::getGoalSignalPath, () -> {
 		Vector newvector = new Vector(Configuration.numDimensions);
 		File file = new File(Configuration.getGoalSignalPath());
 		try (Scanner scanner = new Scanner(file)) {
@@ -435,7 +438,7 @@ public class GoalSignalsCollection {
 //			System.err.println("MEANS NOT EQUAL: before = " + mean + ", after: " + newmean);
 //		}
 		return newvector;
-	};
+	});
 	
 	
 
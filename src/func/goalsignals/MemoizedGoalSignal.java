@@ -0,0 +1,115 @@
+package func.goalsignals;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import config.Configuration;
+import data.Vector;
+
+/**
+ * A named goal signal that is generated once per dimensionality and then
+ * served from a cache. The generated signal is kept as an immutable
+ * {@link PreparedGoalSignal}, together with its statistics, norm, normalized
+ * copies and Fourier transform. The cache is invalidated when
+ * <code>Configuration.numDimensions</code> changes, or when the optional
+ * source of the signal (e.g. the path of a goal signal file) changes.
+ * 
+ * Lookups are safe from several threads; a signal is generated at most once
+ * per key.
+ * 
+ * @author Peter P. & Jovan N.
+ *
+ */
+public class MemoizedGoalSignal implements Supplier<Vector> {
+	
+	private final String 			name;
+	private final Supplier<?> 		source;
+	private final Supplier<Vector> 	generator;
+	private volatile Entry 			cached 		= 	null;
+	
+	/**
+	 * @param name name of the goal signal
+	 * @param generator generates the signal for <code>Configuration.numDimensions</code>
+	 */
+	public MemoizedGoalSignal(String name, Supplier<Vector> generator) {
+		this(name, null, generator);
+	}
+	
+	/**
+	 * @param name name of the goal signal
+	 * @param source anything else the generated signal depends on, or <code>null</code>
+	 * @param generator generates the signal for <code>Configuration.numDimensions</code>
+	 */
+	public MemoizedGoalSignal(String name, Supplier<?> source, Supplier<Vector> generator) {
+		this.name = name;
+		this.source = source;
+		this.generator = generator;
+	}
+	
+	/**
+	 * @return the prepared goal signal for the current dimensionality, generated if not cached
+	 */
+	public PreparedGoalSignal prepared() {
+		int numDimensions = Configuration.numDimensions;
+		Object source = this.source == null ? null : this.source.get();
+		Entry entry = this.cached;
+		if(entry == null || !entry.matches(numDimensions, source)) {
+			synchronized(this) {
+				entry = this.cached;
+				if(entry == null || !entry.matches(numDimensions, source)) {
+					entry = new Entry(numDimensions, source, PreparedGoalSignal.of(this.generator.get()));
+					this.cached = entry;
+				}
+			}
+		}
+		return entry.prepared;
+	}
+	
+	/**
+	 * @return a copy of the cached goal signal, which the caller may modify
+	 */
+	@Override
+	public Vector get() {
+		return this.prepared().getSignal().cloneThis();
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Prepares the goal signal of any supplier. A {@link MemoizedGoalSignal} returns
+	 * its cached instance, any other supplier is asked for a new signal.
+	 * @param supplier goal signal supplier
+	 * @return prepared goal signal
+	 */
+	public static PreparedGoalSignal prepare(Supplier<Vector> supplier) {
+		if(supplier instanceof MemoizedGoalSignal) {
+			return ((MemoizedGoalSignal) supplier).prepared();
+		}
+		return PreparedGoalSignal.of(supplier.get());
+	}
+	
+	@Override
+	public String toString() {
+		return this.name;
+	}
+	
+	private static class Entry {
+		
+		private final int 					numDimensions;
+		private final Object 				source;
+		private final PreparedGoalSignal 	prepared;
+		
+		Entry(int numDimensions, Object source, PreparedGoalSignal prepared) {
+			this.numDimensions = numDimensions;
+			this.source = source;
+			this.prepared = prepared;
+		}
+		
+		boolean matches(int numDimensions, Object source) {
+			return this.numDimensions == numDimensions && Objects.equals(this.source, source);
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package func.goalsignals;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import data.RealFourierTransform;
+import data.Vector;
+import data.VectorStats;
+
+/**
+ * A goal signal together with everything that cost functions derive from it
+ * alone: its statistics, its norm, the centered signal <code>g - mean(g)</code>,
+ * the Fourier transform of the centered signal, zero-padded for linear
+ * correlation, and its normalized copies. The goal signal does not change
+ * during a run, so all of it is computed once when the goal signal is
+ * populated; normalized copies are computed once per normalizer.
+ * 
+ * @author Peter P. & Jovan N.
+ *
+ */
+public class PreparedGoalSignal {
+	
+	private final Vector 		signal;
+	private final VectorStats 	stats;
+	private final Vector 		centered;
+	private final int 			transformSize;
+	private final double[] 		centeredTransformRe;
+	private final double[] 		centeredTransformIm;
+	private final double 		norm;
+	private final Map<UnaryOperator<Vector>, Vector> normalized = new ConcurrentHashMap<>();
+	
+	private PreparedGoalSignal(Vector signal) {
+		this.signal = signal;
+		this.stats = signal.stats();
+		this.centered = signal.cloneThis();
+		this.centered.subtract(this.stats.getMean());
+		this.norm = Math.sqrt(signal.normSqr());
+		
+		RealFourierTransform transform = new RealFourierTransform(RealFourierTransform.paddedSize(signal.getNumDimensions()));
+		double[] values = new double[transform.getSize()];
+		for(int i = 0; i < signal.getNumDimensions(); i++) {
+			values[i] = this.centered.getValue(i);
+		}
+		this.transformSize = transform.getSize();
+		this.centeredTransformRe = new double[transform.getNumBins()];
+		this.centeredTransformIm = new double[transform.getNumBins()];
+		transform.forward(values, signal.getNumDimensions(), this.centeredTransformRe, this.centeredTransformIm);
+	}
+	
+	/**
+	 * @param signal the goal signal; must not be modified afterwards
+	 * @return prepared goal signal
+	 */
+	public static PreparedGoalSignal of(Vector signal) {
+		return new PreparedGoalSignal(signal);
+	}
+	
+	public Vector getSignal() {
+		return this.signal;
+	}
+	
+	public VectorStats getStats() {
+		return this.stats;
+	}
+	
+	public double getMean() {
+		return this.stats.getMean();
+	}
+	
+	public double getStd() {
+		return this.stats.std();
+	}
+	
+	/**
+	 * @return Euclidean norm of the goal signal
+	 */
+	public double getNorm() {
+		return this.norm;
+	}
+	
+	/**
+	 * @param normalizer one of the normalizations of {@link Vector}, or any other normalizer
+	 * @return the goal signal normalized by <code>normalizer</code>, computed once; must not be modified
+	 */
+	public Vector getNormalized(UnaryOperator<Vector> normalizer) {
+		return this.normalized.computeIfAbsent(normalizer, n -> {
+			Vector normalized = this.signal.cloneThis();
+			normalized.normalize(n);
+			return normalized;
+		});
+	}
+	
+	/**
+	 * @return <code>g - mean(g)</code>; must not be modified
+	 */
+	public Vector getCentered() {
+		return this.centered;
+	}
+	
+	/**
+	 * @return size of the transform, see {@link RealFourierTransform#paddedSize(int)}
+	 */
+	public int getTransformSize() {
+		return this.transformSize;
+	}
+	
+	/**
+	 * @return real parts of the spectrum of the centered goal signal; must not be modified
+	 */
+	public double[] getCenteredTransformRe() {
+		return this.centeredTransformRe;
+	}
+	
+	/**
+	 * @return imaginary parts of the spectrum of the centered goal signal; must not be modified
+	 */
+	public double[] getCenteredTransformIm() {
+		return this.centeredTransformIm;
+	}
+	
+	/**
+	 * Computes <code>SUM{(value_i + addend_i - mean) * (g_i - mean(g))}</code>, the
+	 * co-moment of <code>value + addend</code> and the goal signal, without creating
+	 * any vector.
+	 * @param value the response
+	 * @param addend added to the response, or <code>null</code>
+	 * @param mean mean of <code>value + addend</code>
+	 * @return co-moment of the response and the goal signal
+	 */
+	public double comoment(Vector value, Vector addend, double mean) {
+		double sum = 0.0;
+		for(int i = 0; i < value.getNumDimensions(); i++) {
+			double other = addend == null ? value.getValue(i) : value.getValue(i) + addend.getValue(i);
+			sum += (other - mean) * this.centered.getValue(i);
+		}
+		return sum;
+	}
+	
+}
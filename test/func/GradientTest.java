@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016 Evangelos Pournaras
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+package func;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import config.Configuration;
+import data.Vector;
+
+/**
+ * Verifies the closed-form gradients of the goal-tracking cost functions
+ * against central differences, see
+ * {@link DifferentiableCostFunction#numericalGradient(CostFunction, Vector)}.
+ * RSS is checked under every normalization of {@link Vector}, cross-correlation
+ * with and without sliding. Random goal signals and responses are drawn for
+ * every trial.
+ *
+ * @author Peter P. & Jovan N.
+ */
+public class GradientTest {
+
+    private static final double TOLERANCE = 1e-5;
+    private static final int NUM_DIMENSIONS = 48;
+    private static final int NUM_TRIALS = 20;
+
+    private final Random random = new Random(0);
+    private UnaryOperator<Vector> normalizer;
+    private Supplier<Vector> goalSignalSupplier;
+    private boolean shouldSlide;
+
+    @Before
+    public void saveConfiguration() {
+        normalizer = Configuration.normalizer;
+        goalSignalSupplier = Configuration.goalSignalSupplier;
+        shouldSlide = CrossCorrelationCostFunction.shouldSlide;
+    }
+
+    @After
+    public void restoreConfiguration() {
+        Configuration.normalizer = normalizer;
+        Configuration.goalSignalSupplier = goalSignalSupplier;
+        CrossCorrelationCostFunction.shouldSlide = shouldSlide;
+    }
+
+    @Test
+    public void rssWithoutNormalization() {
+        checkRSS(Vector.no_normalization);
+    }
+
+    @Test
+    public void rssWithStandardNormalization() {
+        checkRSS(Vector.standard_normalization);
+    }
+
+    @Test
+    public void rssWithMinMaxNormalization() {
+        checkRSS(Vector.min_max_normalization);
+    }
+
+    @Test
+    public void rssWithUnitLengthNormalization() {
+        checkRSS(Vector.unit_length_normalization);
+    }
+
+    @Test
+    public void rmse() {
+        check(new RMSECostFunction(), RMSECostFunction::populateGoalSignal);
+    }
+
+    @Test
+    public void crossCorrelation() {
+        CrossCorrelationCostFunction.shouldSlide = false;
+        check(new CrossCorrelationCostFunction(), CrossCorrelationCostFunction::populateGoalSignal);
+    }
+
+    @Test
+    public void slidingCrossCorrelation() {
+        CrossCorrelationCostFunction.shouldSlide = true;
+        check(new CrossCorrelationCostFunction(), CrossCorrelationCostFunction::populateGoalSignal);
+    }
+
+    private void checkRSS(UnaryOperator<Vector> normalizer) {
+        Configuration.normalizer = normalizer;
+        check(new RSSCostFunction(), RSSCostFunction::populateGoalSignal);
+    }
+
+    /**
+     * Asserts that the largest relative error of all trials is within the tolerance.
+     */
+    private void check(DifferentiableCostFunction<Vector> costFunction, Runnable populateGoalSignal) {
+        double maxError = 0.0;
+        for (int trial = 0; trial < NUM_TRIALS; trial++) {
+            Vector goal = randomSignal();
+            Configuration.goalSignalSupplier = () -> goal;
+            populateGoalSignal.run();
+
+            Vector response = randomSignal();
+            Vector analytical = costFunction.calcGradient(response);
+            Vector numerical = DifferentiableCostFunction.numericalGradient(costFunction, response);
+            Vector difference = analytical.cloneThis();
+            difference.subtract(numerical);
+            maxError = Math.max(maxError, difference.norm() / Math.max(numerical.norm(), 1e-12));
+        }
+        assertTrue("max relative error " + maxError, maxError <= TOLERANCE);
+    }
+
+    /**
+     * A random walk with an offset, so that neither mean nor standard deviation is trivial.
+     */
+    private Vector randomSignal() {
+        Vector signal = new Vector(NUM_DIMENSIONS);
+        double value = 10 * random.nextDouble();
+        for (int i = 0; i < NUM_DIMENSIONS; i++) {
+            value += random.nextGaussian();
+            signal.setValue(i, value);
+        }
+        return signal;
+    }
+}